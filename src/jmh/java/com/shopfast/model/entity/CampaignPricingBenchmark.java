@@ -0,0 +1,95 @@
+package com.shopfast.model.entity;
+
+import com.shopfast.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discounted price and order total arithmetic: the original BigDecimal code next to the
+ * fixed-point {@link Money} engine. The order total sums ten lines of three units.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CampaignPricingBenchmark {
+
+    private static final int LINES = 10;
+
+    private static final int QUANTITY = 3;
+
+    @Param({"2999.99", "89999.99"})
+    private String price;
+
+    @Param({"30.00", "12.50"})
+    private String discountPercentage;
+
+    private Campaign campaign;
+
+    private long priceMinor;
+
+    private int discountBasisPoints;
+
+    @Setup
+    public void setUp() {
+        Product product = new Product();
+        product.setPrice(new BigDecimal(price));
+        campaign = new Campaign();
+        campaign.setProduct(product);
+        campaign.setDiscountPercentage(new BigDecimal(discountPercentage));
+        priceMinor = Money.toMinor(product.getPrice());
+        discountBasisPoints = Money.toBasisPoints(campaign.getDiscountPercentage());
+    }
+
+    // The arithmetic Campaign.getDiscountedPrice used before the fixed-point engine
+    @Benchmark
+    public BigDecimal discountedPriceBigDecimal() {
+        BigDecimal productPrice = campaign.getProduct().getPrice();
+        BigDecimal discount = productPrice.multiply(campaign.getDiscountPercentage()).divide(BigDecimal.valueOf(100));
+        return productPrice.subtract(discount);
+    }
+
+    @Benchmark
+    public BigDecimal discountedPriceEntity() {
+        return campaign.getDiscountedPrice();
+    }
+
+    @Benchmark
+    public long discountedPriceMinor() {
+        return Money.discountedPrice(priceMinor, discountBasisPoints);
+    }
+
+    @Benchmark
+    public BigDecimal orderTotalBigDecimal() {
+        BigDecimal unitPrice = discountedPriceBigDecimal();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            total = total.add(unitPrice.multiply(BigDecimal.valueOf(QUANTITY)));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long orderTotalMinor() {
+        long unitPrice = Money.discountedPrice(priceMinor, discountBasisPoints);
+        long total = 0;
+        for (int i = 0; i < LINES; i++) {
+            total = Math.addExact(total, Money.lineTotal(unitPrice, QUANTITY));
+        }
+        return total;
+    }
+}
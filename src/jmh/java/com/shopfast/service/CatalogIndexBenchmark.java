@@ -0,0 +1,76 @@
+package com.shopfast.service;
+
+import com.shopfast.model.dto.CatalogRow;
+import com.shopfast.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * One 50-item listing page from a random cursor on a large catalog: 50 categories,
+ * one product in ten inactive and, for the in-stock page, the given share of products in stock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CatalogIndexBenchmark {
+
+    private static final int PAGE = 50;
+
+    @Param({"2000000"})
+    private int products;
+
+    @Param({"50", "2"})
+    private int inStockPercent;
+
+    private CatalogIndex index;
+
+    @Setup
+    public void setUp() {
+        List<CatalogRow> rows = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            rows.add(new CatalogRow(id, "category-" + id % 50, id % 10 != 0, id % 100 < inStockPercent ? 10 : 0));
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        StockStore stockStore = mock(StockStore.class);
+        when(productRepository.findCatalogRows()).thenReturn(rows);
+        when(stockStore.available(anyLong(), anyInt())).thenAnswer(call -> call.getArgument(1));
+        index = new CatalogIndex(productRepository, stockStore);
+        index.refresh();
+    }
+
+    @Benchmark
+    public long[] categoryPage() {
+        return index.activeInCategory("category-7", cursor(), PAGE + 1);
+    }
+
+    @Benchmark
+    public long[] inStockPage() {
+        return index.inStock(cursor(), PAGE + 1);
+    }
+
+    private long cursor() {
+        return ThreadLocalRandom.current().nextLong(products - products / 10);
+    }
+}
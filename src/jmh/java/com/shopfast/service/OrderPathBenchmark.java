@@ -0,0 +1,93 @@
+package com.shopfast.service;
+
+import com.shopfast.ShopfastEcommerceApplication;
+import com.shopfast.model.dto.OrderRequest;
+import com.shopfast.model.dto.OrderResponse;
+import com.shopfast.model.entity.Product;
+import com.shopfast.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link OrderService#createOrder} path against the embedded H2 database, with the
+ * simulated per-item delay switched off. The contended case has 8 threads ordering the
+ * same product.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderPathBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private OrderService orderService;
+
+    private OrderRequest hotProductOrder;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShopfastEcommerceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh-orders;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--shopfast.orders.item-processing-delay=0ms",
+                        "--shopfast.notifications.stub-delay=0ms",
+                        "--logging.level.com.shopfast=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        orderService = context.getBean(OrderService.class);
+
+        // Enough stock that no iteration runs out
+        Product product = new Product();
+        product.setName("Benchmark Product");
+        product.setPrice(new BigDecimal("999.99"));
+        product.setStockQuantity(1_000_000_000);
+        product.setCategory("Benchmark");
+        product = context.getBean(ProductRepository.class).save(product);
+
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        hotProductOrder = new OrderRequest();
+        hotProductOrder.setUserId(1L);
+        hotProductOrder.setShippingAddress("Benchmark");
+        hotProductOrder.setItems(List.of(item));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public OrderResponse createOrder() {
+        return orderService.createOrder(hotProductOrder);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public OrderResponse createOrderHotProductContended() {
+        return orderService.createOrder(hotProductOrder);
+    }
+}
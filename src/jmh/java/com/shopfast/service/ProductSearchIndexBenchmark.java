@@ -0,0 +1,89 @@
+package com.shopfast.service;
+
+import com.shopfast.model.dto.CatalogRow;
+import com.shopfast.model.dto.ProductTextRow;
+import com.shopfast.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Top 20 search results on a synthetic catalog whose names and descriptions are drawn
+ * from a small vocabulary, so common prefixes match a large share of the products.
+ * One product in ten is inactive and one in four sold out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductSearchIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "phone", "case", "wireless", "charger", "laptop", "stand", "running", "shoes", "leather", "jacket",
+            "coffee", "grinder", "desk", "lamp", "smart", "watch", "garden", "hose", "yoga", "mat",
+            "camera", "lens", "kitchen", "knife", "travel", "backpack", "gaming", "mouse", "water", "bottle"};
+
+    @Param({"100000"})
+    private int products;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        List<ProductTextRow> rows = new ArrayList<>(products);
+        List<CatalogRow> catalogRows = new ArrayList<>(products);
+        for (int id = 1; id <= products; id++) {
+            String name = word(id) + " " + word(id / 7) + " model" + id % 1000;
+            String description = word(id / 3) + " " + word(id / 11) + " " + word(id / 13) + " " + word(id / 17);
+            rows.add(new ProductTextRow((long) id, name, description, "category-" + id % 50));
+            catalogRows.add(new CatalogRow((long) id, "category-" + id % 50, id % 10 != 0, id % 4 != 0 ? 10 : 0));
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        StockStore stockStore = mock(StockStore.class);
+        when(productRepository.findTextRows()).thenReturn(rows);
+        when(productRepository.findCatalogRows()).thenReturn(catalogRows);
+        when(stockStore.available(anyLong(), anyInt())).thenAnswer(call -> call.getArgument(1));
+        CatalogIndex catalogIndex = new CatalogIndex(productRepository, stockStore);
+        catalogIndex.refresh();
+        index = new ProductSearchIndex(productRepository, catalogIndex);
+        index.build();
+    }
+
+    @Benchmark
+    public long[] rareTerm() {
+        return index.search("model417", 20);
+    }
+
+    @Benchmark
+    public long[] commonPrefix() {
+        return index.search("wi", 20);
+    }
+
+    @Benchmark
+    public long[] twoWords() {
+        return index.search("leather jack", 20);
+    }
+
+    private static String word(int seed) {
+        return WORDS[seed % WORDS.length];
+    }
+}
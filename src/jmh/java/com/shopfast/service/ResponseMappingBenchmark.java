@@ -0,0 +1,136 @@
+package com.shopfast.service;
+
+import com.shopfast.model.dto.OrderResponse;
+import com.shopfast.model.dto.ProductResponse;
+import com.shopfast.model.entity.Campaign;
+import com.shopfast.model.entity.Order;
+import com.shopfast.model.entity.OrderItem;
+import com.shopfast.model.entity.Product;
+import com.shopfast.model.entity.User;
+import com.shopfast.repository.CampaignRepository;
+import com.shopfast.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Entity-to-response mapping of {@link ProductService} and {@link OrderService}.
+ * Repositories are mocked; the campaign index and stock ledger are the real ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"1", "10"})
+    private int orderItems;
+
+    private ProductService productService;
+
+    private OrderService orderService;
+
+    private Product campaignProduct;
+
+    private Product regularProduct;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        campaignProduct = product(1L, "89999.99");
+        regularProduct = product(2L, "2999.99");
+
+        Campaign campaign = new Campaign();
+        campaign.setId(1L);
+        campaign.setName("Black Friday");
+        campaign.setProduct(campaignProduct);
+        campaign.setDiscountPercentage(new BigDecimal("30.00"));
+        campaign.setMaxQuantity(1000);
+        campaign.setStartDate(LocalDateTime.now().minusHours(1));
+        campaign.setEndDate(LocalDateTime.now().plusDays(1));
+
+        CampaignRepository campaignRepository = mock(CampaignRepository.class);
+        when(campaignRepository.findCurrentAndUpcoming(any())).thenReturn(List.of(campaign));
+        CampaignIndex campaignIndex = new CampaignIndex(campaignRepository, mock(ApplicationEventPublisher.class));
+        campaignIndex.refresh();
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllStockQuantities()).thenReturn(List.of(new Object[]{1L, 100}, new Object[]{2L, 100}));
+        InventoryLedger ledger = new InventoryLedger(productRepository, campaignRepository, mock(StockReconciler.class));
+        ledger.warmUp();
+
+        productService = new ProductService(productRepository, campaignIndex, null, null, ledger, null, null, null);
+        orderService = new OrderService(null, null, null, campaignIndex, ledger, null, null, null, null, null, null, null);
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        order = new Order();
+        order.setId(1L);
+        order.setUser(user);
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setTotalAmount(BigDecimal.ZERO);
+        order.setCreatedAt(LocalDateTime.now());
+        List<OrderItem> items = new ArrayList<>(orderItems);
+        for (int i = 0; i < orderItems; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i);
+            item.setOrder(order);
+            item.setProduct(i % 2 == 0 ? campaignProduct : regularProduct);
+            item.setQuantity(1);
+            item.setUnitPrice(item.getProduct().getPrice());
+            item.setTotalPrice(item.getProduct().getPrice());
+            items.add(item);
+        }
+        order.setOrderItems(items);
+    }
+
+    @Benchmark
+    public ProductResponse productWithCampaign() {
+        return productService.convertToResponse(campaignProduct);
+    }
+
+    @Benchmark
+    public ProductResponse productWithoutCampaign() {
+        return productService.convertToResponse(regularProduct);
+    }
+
+    @Benchmark
+    public OrderResponse order() {
+        return orderService.convertToResponse(order);
+    }
+
+    private static Product product(Long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(100);
+        product.setCategory("Electronics");
+        product.setIsActive(true);
+        product.setCreatedAt(LocalDateTime.now());
+        return product;
+    }
+}
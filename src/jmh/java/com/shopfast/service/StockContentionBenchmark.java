@@ -0,0 +1,67 @@
+package com.shopfast.service;
+
+import com.shopfast.repository.CampaignRepository;
+import com.shopfast.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reserve and release of a single hot product (with a campaign claim) on the in-memory
+ * ledger, uncontended and with 8 threads hitting the same counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockContentionBenchmark {
+
+    private static final List<StockStore.StockLine> HOT_LINE =
+            List.of(new StockStore.StockLine(1L, 1, 1L, Integer.MAX_VALUE));
+
+    private InventoryLedger ledger;
+
+    @Setup
+    public void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        CampaignRepository campaignRepository = mock(CampaignRepository.class);
+        when(productRepository.findAllStockQuantities()).thenReturn(List.<Object[]>of(new Object[]{1L, Integer.MAX_VALUE}));
+        when(campaignRepository.findAllSoldQuantities()).thenReturn(List.<Object[]>of(new Object[]{1L, 0}));
+        ledger = new InventoryLedger(productRepository, campaignRepository, mock(StockReconciler.class));
+        ledger.warmUp();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public StockStore.Reservation hotProductUncontended() {
+        return reserveAndRelease();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public StockStore.Reservation hotProductContended() {
+        return reserveAndRelease();
+    }
+
+    private StockStore.Reservation reserveAndRelease() {
+        StockStore.Reservation reservation = ledger.reserve(HOT_LINE);
+        ledger.release(reservation);
+        return reservation;
+    }
+}
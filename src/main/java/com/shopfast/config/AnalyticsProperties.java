@@ -0,0 +1,19 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.analytics")
+public class AnalyticsProperties {
+
+    // How far back each bucket resolution reaches; older edges of a range are rounded out
+    private Duration secondRetention = Duration.ofMinutes(5);
+
+    private Duration minuteRetention = Duration.ofHours(24);
+
+    // Also how far back the startup rebuild reads the orders table, and how long an idle product or campaign series is kept
+    private Duration hourRetention = Duration.ofDays(30);
+}
@@ -0,0 +1,38 @@
+package com.shopfast.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for the asynchronous parts of the order pipeline.
+ * With spring.threads.virtual.enabled=true each task gets its own virtual thread and
+ * the pool size becomes a concurrency limit; otherwise a fixed platform thread pool is used.
+ */
+@Configuration
+public class AsyncConfig {
+
+    // Sends the notifications of one outbox batch in parallel
+    @Bean
+    public AsyncTaskExecutor notificationExecutor(NotificationProperties properties, Environment environment) {
+        return executor("notify-", properties.getParallelism(), environment);
+    }
+
+    static AsyncTaskExecutor executor(String threadNamePrefix, int concurrency, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        return executor;
+    }
+}
@@ -0,0 +1,30 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.orders.async")
+public class AsyncOrderProperties {
+
+    private boolean enabled = false;
+
+    // Orders accepted but not yet persisted; rounded up to a power of two
+    private int bufferSize = 1024;
+
+    // Threads running the per-item checks and campaign pricing
+    private int pricingWorkers = 8;
+
+    // Orders persisted in one transaction at most
+    private int maxBatchSize = 64;
+
+    // How long the status of an order token can be polled
+    private Duration statusTtl = Duration.ofHours(1);
+
+    private int maximumStatuses = 100_000;
+
+    // Sent with the 503 when the buffer is full
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
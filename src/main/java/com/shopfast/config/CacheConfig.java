@@ -0,0 +1,15 @@
+package com.shopfast.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Local Caffeine caches, sized and timed by spring.cache.caffeine.spec.
+ * Hit/miss/eviction counters are bound to Micrometer by Spring Boot (cache.gets, cache.evictions).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+}
@@ -0,0 +1,17 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.campaigns")
+public class CampaignProperties {
+
+    // What happens to an order line whose campaign quota is used up
+    private SoldOutPolicy soldOutPolicy = SoldOutPolicy.FULL_PRICE;
+
+    public enum SoldOutPolicy {
+        FULL_PRICE, // Sell the units at the regular price
+        REJECT      // Reject the whole order
+    }
+}
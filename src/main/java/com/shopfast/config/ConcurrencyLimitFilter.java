@@ -0,0 +1,107 @@
+package com.shopfast.config;
+
+import com.shopfast.service.ConcurrencyLimiter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admission control for order placement and product browsing.
+ * Requests over the adaptive limit get an immediate 429 with Retry-After instead of
+ * waiting for a thread or a connection. Streaming responses hold their permit until the
+ * asynchronous part has finished. Only successful single requests feed the latency
+ * gradient: fast rejections would pull its baseline down, and batches take far longer.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimiter limiter;
+
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter, ConcurrencyLimitProperties properties) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ConcurrencyLimiter.Priority priority = priority(request);
+        if (priority == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority);
+        if (permit == null) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        boolean sampled = !isBatch(request);
+        boolean async = false;
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(permit, sampled));
+                async = true;
+            }
+            completed = true;
+        } finally {
+            if (!async) {
+                permit.release(sampled && completed && successful(response));
+            }
+        }
+    }
+
+    private static boolean isBatch(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/batch");
+    }
+
+    private static boolean successful(ServletResponse response) {
+        int status = ((HttpServletResponse) response).getStatus();
+        return status >= 200 && status < 300;
+    }
+
+    private static ConcurrencyLimiter.Priority priority(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("POST".equals(request.getMethod()) && (path.equals("/api/orders") || path.equals("/api/orders/batch"))) {
+            return ConcurrencyLimiter.Priority.ORDERS;
+        }
+        if ("GET".equals(request.getMethod()) && (path.equals("/api/products") || path.startsWith("/api/products/"))) {
+            return ConcurrencyLimiter.Priority.BROWSING;
+        }
+        return null;
+    }
+
+    // onComplete also follows timeouts and errors
+    private record ReleasingListener(ConcurrencyLimiter.Permit permit, boolean sampled) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release(sampled && successful(event.getSuppliedResponse()));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
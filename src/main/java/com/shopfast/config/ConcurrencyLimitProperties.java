@@ -0,0 +1,36 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 64;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 200;
+
+    // Latency may grow to this multiple of its baseline before the limit shrinks
+    private double tolerance = 2.0;
+
+    // Latency samples are averaged over this window before the limit is adjusted
+    private Duration window = Duration.ofMillis(500);
+
+    private int minWindowSamples = 10;
+
+    // Baseline latency is the fastest window average among this many recent windows
+    private int baselineWindows = 120;
+
+    // Share of the limit browsing may take; the rest is kept for order placement
+    private double browsingShare = 0.75;
+
+    // Retry-After of rejected requests
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
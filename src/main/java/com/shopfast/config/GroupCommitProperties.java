@@ -0,0 +1,28 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.orders.group-commit")
+public class GroupCommitProperties {
+
+    private boolean enabled = false;
+
+    // How long the committer waits for more orders after the first one of a group
+    private Duration window = Duration.ofMillis(3);
+
+    // Orders committed in one transaction at most
+    private int maxBatchSize = 64;
+
+    // Pending orders accepted before new ones are rejected
+    private int queueCapacity = 10_000;
+
+    // How long a request waits for its group to commit
+    private Duration commitTimeout = Duration.ofSeconds(10);
+
+    // Sent with the 503 when the queue is full
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
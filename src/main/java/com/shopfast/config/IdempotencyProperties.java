@@ -0,0 +1,20 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.orders.idempotency")
+public class IdempotencyProperties {
+
+    // Keys remembered at most; the least recently used are dropped first
+    private long maximumSize = 100_000;
+
+    // How long a completed result is replayed for a repeated key
+    private Duration ttl = Duration.ofHours(1);
+
+    // How long a duplicate waits for the first request with its key before a conflict
+    private Duration waitTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,27 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.notifications")
+public class NotificationProperties {
+
+    // Outbox rows fetched per dispatcher run
+    private int batchSize = 100;
+
+    // Notifications sent concurrently within a batch
+    private int parallelism = 4;
+
+    private int maxAttempts = 5;
+
+    // Retry delay after the first failure, doubled on every further attempt
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    // Simulated send time of the local stub notifier
+    private Duration stubDelay = Duration.ofMillis(200);
+}
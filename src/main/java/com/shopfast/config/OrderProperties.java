@@ -0,0 +1,14 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.orders")
+public class OrderProperties {
+
+    // Simulated per-item processing time (external checks), zero in benchmarks
+    private Duration itemProcessingDelay = Duration.ofMillis(100);
+}
@@ -0,0 +1,98 @@
+package com.shopfast.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+/**
+ * Picks the connection pool for read-only transactions.
+ * Replicas are used round robin; those marked as lagging are skipped, and reads go to
+ * the primary when no replica is usable. Replicas start out as lagging until the
+ * first lag check has seen them in sync.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+
+    private final Map<String, DataSource> replicas;
+
+    private final String[] replicaNames;
+
+    private final Set<String> lagging = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Map<String, Counter> reads = new HashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicaNames = replicas.keySet().toArray(String[]::new);
+        this.lagging.addAll(replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        targets.keySet().forEach(name -> reads.put((String) name,
+                meterRegistry.counter("shopfast.datasource.reads", "target", (String) name)));
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public void setLagging(String replica, boolean behind) {
+        boolean changed = behind ? lagging.add(replica) : lagging.remove(replica);
+        if (changed) {
+            log.info("Replica {} {}", replica, behind ? "is lagging, reads fall back" : "is back in sync");
+        }
+    }
+
+    public boolean isLagging(String replica) {
+        return lagging.contains(replica);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicaNames.length; i++) {
+            String name = replicaNames[Math.floorMod(start + i, replicaNames.length)];
+            if (!lagging.contains(name)) {
+                reads.get(name).increment();
+                return name;
+            }
+        }
+        reads.get(PRIMARY).increment();
+        return PRIMARY;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+        if (primary instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.datasource.replica-routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    // Replicas further behind the primary are skipped until they catch up
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+
+        // Pool name, used as the metrics tag
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
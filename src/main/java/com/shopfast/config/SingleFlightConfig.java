@@ -0,0 +1,26 @@
+package com.shopfast.config;
+
+import com.shopfast.model.dto.CampaignResponse;
+import com.shopfast.model.dto.ProductResponse;
+import com.shopfast.service.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Request collapsing for the single-item lookups that a campaign start turns into a
+ * thundering herd: concurrent requests for the same id share one database load.
+ */
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<Long, ProductResponse> productLoads(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        return new SingleFlight<>("products", properties.getGrace(), meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<Long, CampaignResponse> campaignLoads(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        return new SingleFlight<>("campaigns", properties.getGrace(), meterRegistry);
+    }
+}
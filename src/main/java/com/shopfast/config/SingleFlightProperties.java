@@ -0,0 +1,14 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.single-flight")
+public class SingleFlightProperties {
+
+    // How long a finished load keeps being shared; zero shares only loads still running
+    private Duration grace = Duration.ZERO;
+}
@@ -0,0 +1,14 @@
+package com.shopfast.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shopfast.snapshots")
+public class SnapshotProperties {
+
+    // Background rebuilds run at most this often; stale snapshots are served until then
+    private Duration minRebuildInterval = Duration.ofMillis(200);
+}
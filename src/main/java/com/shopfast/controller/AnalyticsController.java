@@ -0,0 +1,36 @@
+package com.shopfast.controller;
+
+import com.shopfast.model.dto.SalesReport;
+import com.shopfast.service.SalesAnalytics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsController {
+
+    private final SalesAnalytics salesAnalytics;
+
+    /**
+     * Orders, units and revenue in [from, to), in total, per product and per campaign.
+     * Served from in-memory counters; defaults to the last hour.
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<SalesReport> getSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        return ResponseEntity.ok(salesAnalytics.report(start, end));
+    }
+}
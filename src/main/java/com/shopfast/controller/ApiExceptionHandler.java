@@ -0,0 +1,31 @@
+package com.shopfast.controller;
+
+import com.shopfast.exception.IdempotencyKeyConflictException;
+import com.shopfast.exception.InvalidRequestException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Client errors answered directly with a problem detail. Going through the /error page
+ * instead would hit the security filter chain and come back as 403.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ProblemDetail> invalidRequest(InvalidRequestException e) {
+        return problem(HttpStatus.BAD_REQUEST, e);
+    }
+
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ProblemDetail> idempotencyKeyConflict(IdempotencyKeyConflictException e) {
+        return problem(HttpStatus.CONFLICT, e);
+    }
+
+    private static ResponseEntity<ProblemDetail> problem(HttpStatus status, RuntimeException e) {
+        return ResponseEntity.status(status).body(ProblemDetail.forStatusAndDetail(status, e.getMessage()));
+    }
+}
@@ -2,6 +2,7 @@ package com.shopfast.controller;
 
 import com.shopfast.model.dto.CampaignResponse;
 import com.shopfast.service.CampaignService;
+import com.shopfast.service.CatalogSnapshots;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -10,8 +11,6 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/campaigns")
 @RequiredArgsConstructor
@@ -20,10 +19,11 @@ public class CampaignController {
 
     private final CampaignService campaignService;
 
+    private final CatalogSnapshots catalogSnapshots;
+
     @GetMapping("/active")
-    public ResponseEntity<List<CampaignResponse>> getActiveCampaigns() {
-        List<CampaignResponse> campaigns = campaignService.getActiveCampaigns();
-        return ResponseEntity.ok(campaigns);
+    public ResponseEntity<byte[]> getActiveCampaigns() {
+        return SnapshotResponses.of(catalogSnapshots.activeCampaigns());
     }
 
     @GetMapping("/{id}")
@@ -1,21 +1,46 @@
 package com.shopfast.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopfast.config.AsyncOrderProperties;
+import com.shopfast.config.GroupCommitProperties;
+import com.shopfast.exception.OrderIntakeFullException;
+import com.shopfast.model.dto.BatchOrderRequest;
+import com.shopfast.model.dto.BatchOrderResponse;
+import com.shopfast.model.dto.CursorPage;
 import com.shopfast.model.dto.OrderRequest;
 import com.shopfast.model.dto.OrderResponse;
+import com.shopfast.model.dto.OrderStatusResponse;
+import com.shopfast.service.AsyncOrderPipeline;
+import com.shopfast.service.GroupCommitOrderIntake;
+import com.shopfast.service.IdempotencyStore;
+import com.shopfast.service.OrderHistoryReader;
 import com.shopfast.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -25,24 +50,125 @@ public class OrderController {
 
     private final OrderService orderService;
 
+    private final OrderHistoryReader orderHistoryReader;
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final ObjectMapper objectMapper;
+
+    // Present only when shopfast.orders.group-commit.enabled=true
+    private final ObjectProvider<GroupCommitOrderIntake> groupCommitIntake;
+
+    // Present only when shopfast.orders.async.enabled=true
+    private final ObjectProvider<AsyncOrderPipeline> asyncPipeline;
+
+    private final AsyncOrderProperties asyncProperties;
+
+    private final GroupCommitProperties groupCommitProperties;
+
     /**
      * Order creation endpoint
      * This endpoint will receive a high volume of requests during peak periods like Black Friday
+     * In async mode it answers 202 with a token to poll at /api/orders/status/{token}
      */
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request) {
+    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequest request,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("Received order request for user: {}", request.getUserId());
 
+        AsyncOrderPipeline pipeline = asyncPipeline.getIfAvailable();
+        if (pipeline != null) {
+            return accept(pipeline, request, idempotencyKey);
+        }
         try {
-            OrderResponse response = orderService.createOrder(request);
+            // Retries with the same key get the first response instead of a second order
+            OrderResponse response = idempotencyKey == null
+                    ? create(request)
+                    : idempotencyStore.execute(idempotencyKey, request, () -> create(request));
             log.info("Order created successfully: {}", response.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (OrderIntakeFullException e) {
+            return serviceUnavailable(groupCommitProperties.getRetryAfter());
         } catch (Exception e) {
             log.error("Error creating order: {}", e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Bulk order creation for partners and replay jobs: up to 500 orders in one call,
+     * placed in one transaction, with a result per order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchOrderResponse> createOrders(@Valid @RequestBody BatchOrderRequest request) {
+        List<OrderService.OrderOutcome> outcomes = orderService.createOrders(request.getOrders());
+
+        List<BatchOrderResponse.Result> results = new ArrayList<>(outcomes.size());
+        int placed = 0;
+        for (int i = 0; i < outcomes.size(); i++) {
+            OrderService.OrderOutcome outcome = outcomes.get(i);
+            if (outcome.error() == null) {
+                placed++;
+                results.add(new BatchOrderResponse.Result(i, true, outcome.response(), null));
+            } else {
+                results.add(new BatchOrderResponse.Result(i, false, null, outcome.error().getMessage()));
+            }
+        }
+        log.info("Batch of {} orders: {} placed", outcomes.size(), placed);
+        return ResponseEntity.ok(new BatchOrderResponse(placed, outcomes.size() - placed, results));
+    }
+
+    private ResponseEntity<OrderStatusResponse> accept(AsyncOrderPipeline pipeline, OrderRequest request,
+                                                       String idempotencyKey) {
+        try {
+            OrderStatusResponse status = idempotencyKey == null
+                    ? pipeline.submit(request)
+                    : idempotencyStore.execute(idempotencyKey, request, () -> pipeline.submit(request));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/status/" + status.getToken()))
+                    .body(status);
+        } catch (OrderIntakeFullException e) {
+            return serviceUnavailable(asyncProperties.getRetryAfter());
+        }
+    }
+
+    // Backpressure: the client retries later instead of waiting for a slot
+    private static <T> ResponseEntity<T> serviceUnavailable(Duration retryAfter) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                .build();
+    }
+
+    private OrderResponse create(OrderRequest request) {
+        GroupCommitOrderIntake intake = groupCommitIntake.getIfAvailable();
+        if (intake == null) {
+            return orderService.createOrder(request);
+        }
+        Duration timeout = groupCommitProperties.getCommitTimeout();
+        try {
+            return intake.submit(request).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                // The group may still commit later; a retry with the same Idempotency-Key is safe
+                throw new RuntimeException("Order was not committed within " + timeout);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Status of an order accepted in async mode, 404 once the token is unknown or expired
+     */
+    @GetMapping("/status/{token}")
+    public ResponseEntity<OrderStatusResponse> getOrderStatus(@PathVariable String token) {
+        AsyncOrderPipeline pipeline = asyncPipeline.getIfAvailable();
+        OrderStatusResponse status = pipeline != null ? pipeline.status(token) : null;
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
     /**
      * Get user's orders
      */
@@ -50,10 +176,26 @@ public class OrderController {
     public ResponseEntity<List<OrderResponse>> getUserOrders(@PathVariable Long userId) {
         log.info("Fetching orders for user: {}", userId);
 
-        List<OrderResponse> orders = orderService.getOrdersByUserId(userId);
+        List<OrderResponse> orders = orderHistoryReader.getOrdersByUserId(userId);
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Keyset-paginated order history, newest first: /api/orders/user/1?limit=20, then &cursor=<nextCursor>
+     */
+    @GetMapping(value = "/user/{userId}", params = "limit")
+    public ResponseEntity<CursorPage<OrderResponse>> getUserOrders(@PathVariable Long userId, @RequestParam int limit,
+                                                                   @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(orderHistoryReader.getOrdersByUserId(userId, cursor, limit));
+    }
+
+    // Accept: application/x-ndjson streams the whole history row by row
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUserOrders(@PathVariable Long userId) {
+        return NdjsonResponses.stream(objectMapper,
+                (Consumer<OrderResponse> consumer) -> orderHistoryReader.streamOrdersByUserId(userId, consumer));
+    }
+
     /**
      * System status check (for load testing)
      */
@@ -1,16 +1,23 @@
 package com.shopfast.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopfast.model.dto.CursorPage;
 import com.shopfast.model.dto.ProductResponse;
+import com.shopfast.service.CatalogSnapshots;
 import com.shopfast.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/products")
@@ -20,10 +27,37 @@ public class ProductController {
 
     private final ProductService productService;
 
+    private final CatalogSnapshots catalogSnapshots;
+
+    private final ObjectMapper objectMapper;
+
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAllProducts() {
+        return SnapshotResponses.of(catalogSnapshots.allProducts());
+    }
+
+    /**
+     * Keyset-paginated variant, e.g. /api/products?limit=50, then &cursor=<nextCursor>
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<ProductResponse>> getAllProducts(@RequestParam int limit,
+                                                                      @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(productService.getActiveProducts(cursor, limit));
+    }
+
+    // Accept: application/x-ndjson streams every row without building the list
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        return NdjsonResponses.stream(objectMapper, productService::streamActiveProducts);
+    }
+
+    /**
+     * Search over name, description and category with prefix matching: /api/products/search?q=iph
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String q,
+                                                                @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productService.search(q, limit));
     }
 
     @GetMapping("/{id}")
@@ -33,14 +67,36 @@ public class ProductController {
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ProductResponse>> getProductsByCategory(@PathVariable String category) {
-        List<ProductResponse> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getProductsByCategory(@PathVariable String category) {
+        return SnapshotResponses.of(catalogSnapshots.productsByCategory(category));
+    }
+
+    @GetMapping(value = "/category/{category}", params = "limit")
+    public ResponseEntity<CursorPage<ProductResponse>> getProductsByCategory(@PathVariable String category,
+                                                                             @RequestParam int limit,
+                                                                             @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(productService.getProductsByCategory(category, cursor, limit));
+    }
+
+    @GetMapping(value = "/category/{category}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProductsByCategory(@PathVariable String category) {
+        return NdjsonResponses.stream(objectMapper,
+                (Consumer<ProductResponse> consumer) -> productService.streamProductsByCategory(category, consumer));
     }
 
     @GetMapping("/in-stock")
-    public ResponseEntity<List<ProductResponse>> getInStockProducts() {
-        List<ProductResponse> products = productService.getInStockProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getInStockProducts() {
+        return SnapshotResponses.of(catalogSnapshots.inStockProducts());
+    }
+
+    @GetMapping(value = "/in-stock", params = "limit")
+    public ResponseEntity<CursorPage<ProductResponse>> getInStockProducts(@RequestParam int limit,
+                                                                          @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(productService.getInStockProducts(cursor, limit));
+    }
+
+    @GetMapping(value = "/in-stock", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamInStockProducts() {
+        return NdjsonResponses.stream(objectMapper, productService::streamInStockProducts);
     }
 }
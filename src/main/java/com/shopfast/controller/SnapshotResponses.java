@@ -0,0 +1,24 @@
+package com.shopfast.controller;
+
+import com.shopfast.service.CatalogSnapshots;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Pre-serialized JSON written as is. Spring MVC answers a matching If-None-Match with
+ * 304 and no body, and no-cache lets clients keep the body but revalidate every time.
+ */
+final class SnapshotResponses {
+
+    private SnapshotResponses() {
+    }
+
+    static ResponseEntity<byte[]> of(CatalogSnapshots.Snapshot snapshot) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.etag())
+                .body(snapshot.body());
+    }
+}
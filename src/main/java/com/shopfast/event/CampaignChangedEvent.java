@@ -0,0 +1,7 @@
+package com.shopfast.event;
+
+/**
+ * Published when a campaign row is inserted, updated or deleted through JPA.
+ */
+public record CampaignChangedEvent(Long campaignId, Long productId) {
+}
@@ -0,0 +1,7 @@
+package com.shopfast.event;
+
+/**
+ * Published when a campaign's quota runs out, ahead of the next campaign index rebuild.
+ */
+public record CampaignSoldOutEvent(Long campaignId, Long productId) {
+}
@@ -0,0 +1,7 @@
+package com.shopfast.event;
+
+/**
+ * Published when a product row is inserted, updated or deleted through JPA.
+ */
+public record ProductChangedEvent(Long productId) {
+}
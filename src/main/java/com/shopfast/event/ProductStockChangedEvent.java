@@ -0,0 +1,9 @@
+package com.shopfast.event;
+
+import java.util.Collection;
+
+/**
+ * Published after an order commits and the stock of its products has changed.
+ */
+public record ProductStockChangedEvent(Collection<Long> productIds) {
+}
@@ -0,0 +1,8 @@
+package com.shopfast.exception;
+
+public class CampaignSoldOutException extends RuntimeException {
+
+    public CampaignSoldOutException(String message) {
+        super(message);
+    }
+}
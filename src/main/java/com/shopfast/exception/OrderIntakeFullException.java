@@ -0,0 +1,8 @@
+package com.shopfast.exception;
+
+public class OrderIntakeFullException extends RuntimeException {
+
+    public OrderIntakeFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,55 @@
+package com.shopfast.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on long minor units (cents).
+ * Amounts cross into BigDecimal only at the boundaries, mapped to the scale 2 columns
+ * (precision 10) of the entities. Rounding rules:
+ * <ul>
+ *   <li>amounts and percentages with more than 2 decimals are rounded HALF_UP on entry</li>
+ *   <li>a discounted price is rounded HALF_UP to the cent, once, from the exact result</li>
+ *   <li>line and order totals are exact (quantity times the rounded unit price)</li>
+ * </ul>
+ * Overflow throws ArithmeticException instead of wrapping.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    // Percentages are held in basis points: 12.50% = 1250
+    private static final long FULL_PERCENT_BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static int toBasisPoints(BigDecimal percentage) {
+        return percentage.setScale(2, RoundingMode.HALF_UP).unscaledValue().intValueExact();
+    }
+
+    // price * (100% - discount), rounded HALF_UP to the cent
+    public static long discountedPrice(long priceMinor, int discountBasisPoints) {
+        if (discountBasisPoints < 0 || discountBasisPoints > FULL_PERCENT_BASIS_POINTS) {
+            throw new IllegalArgumentException("Discount out of range: " + discountBasisPoints);
+        }
+        long scaled = Math.multiplyExact(priceMinor, FULL_PERCENT_BASIS_POINTS - discountBasisPoints);
+        return (scaled + FULL_PERCENT_BASIS_POINTS / 2) / FULL_PERCENT_BASIS_POINTS;
+    }
+
+    public static long lineTotal(long unitPriceMinor, int quantity) {
+        return Math.multiplyExact(unitPriceMinor, quantity);
+    }
+
+    public static BigDecimal discountedPrice(BigDecimal price, BigDecimal discountPercentage) {
+        return toAmount(discountedPrice(toMinor(price), toBasisPoints(discountPercentage)));
+    }
+}
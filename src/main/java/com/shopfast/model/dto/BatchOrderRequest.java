@@ -0,0 +1,18 @@
+package com.shopfast.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchOrderRequest {
+
+    public static final int MAX_ORDERS = 500;
+
+    @NotEmpty(message = "Orders cannot be empty")
+    @Size(max = MAX_ORDERS, message = "At most " + MAX_ORDERS + " orders per batch")
+    private List<@Valid OrderRequest> orders;
+}
@@ -0,0 +1,24 @@
+package com.shopfast.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchOrderResponse {
+
+    private int placed;
+    private int failed;
+    private List<Result> results; // One per submitted order, in request order
+
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        private int index;
+        private boolean success;
+        private OrderResponse order; // null when the order failed
+        private String error;        // null when the order was placed
+    }
+}
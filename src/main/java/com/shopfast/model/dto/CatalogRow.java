@@ -0,0 +1,5 @@
+package com.shopfast.model.dto;
+
+// Product fields the in-memory catalog index is built from
+public record CatalogRow(Long id, String category, Boolean isActive, Integer stockQuantity) {
+}
@@ -0,0 +1,8 @@
+package com.shopfast.model.dto;
+
+import java.math.BigDecimal;
+
+// Order line read by the order history projection queries
+public record OrderItemRow(Long orderId, Long id, Long productId, String productName, Integer quantity,
+                           BigDecimal unitPrice, BigDecimal totalPrice) {
+}
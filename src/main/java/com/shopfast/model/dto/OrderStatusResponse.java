@@ -0,0 +1,18 @@
+package com.shopfast.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderStatusResponse {
+
+    private String token;
+    private Status status;
+    private OrderResponse order; // Set once the order is placed
+    private String error;        // Set when the order failed
+
+    public enum Status {
+        ACCEPTED, PLACED, FAILED
+    }
+}
@@ -0,0 +1,11 @@
+package com.shopfast.model.dto;
+
+import com.shopfast.model.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Order header read by the order history projection queries
+public record OrderSummaryRow(Long id, Long userId, String userEmail, BigDecimal totalAmount,
+                              Order.OrderStatus status, String shippingAddress, LocalDateTime createdAt) {
+}
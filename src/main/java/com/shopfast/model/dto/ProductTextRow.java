@@ -0,0 +1,5 @@
+package com.shopfast.model.dto;
+
+// Searchable product fields the inverted index is built from
+public record ProductTextRow(Long id, String name, String description, String category) {
+}
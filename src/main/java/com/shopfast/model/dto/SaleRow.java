@@ -0,0 +1,9 @@
+package com.shopfast.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Order line the sales analytics are rebuilt from at startup
+public record SaleRow(Long orderId, LocalDateTime createdAt, Long productId, Long campaignId, Integer quantity,
+                      BigDecimal totalPrice) {
+}
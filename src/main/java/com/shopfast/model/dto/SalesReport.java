@@ -0,0 +1,30 @@
+package com.shopfast.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SalesReport {
+
+    private LocalDateTime from; // Range actually covered, widened to whole buckets where needed
+    private LocalDateTime to;
+    private long orders;
+    private long units;
+    private BigDecimal revenue;
+    private List<Line> products;  // Highest revenue first, only those with sales
+    private List<Line> campaigns; // Discounted sales only
+
+    @Data
+    @AllArgsConstructor
+    public static class Line {
+        private Long id;
+        private long orders;
+        private long units;
+        private BigDecimal revenue;
+    }
+}
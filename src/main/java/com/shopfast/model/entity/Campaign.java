@@ -1,7 +1,9 @@
 package com.shopfast.model.entity;
 
+import com.shopfast.model.Money;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -19,6 +21,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "campaigns")
+@EntityListeners(CampaignEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -42,7 +45,7 @@ public class Campaign {
     private BigDecimal discountPercentage;
 
     @Column(name = "max_quantity")
-    private Integer maxQuantity; // Maximum quantity allowed per user for the discounted product
+    private Integer maxQuantity; // Total discounted units the campaign may sell
 
     @Column(name = "start_date", nullable = false)
     private LocalDateTime startDate;
@@ -72,8 +75,8 @@ public class Campaign {
                 (maxQuantity == null || soldQuantity < maxQuantity);
     }
 
+    // Rounded HALF_UP to the cent, see Money
     public BigDecimal getDiscountedPrice() {
-        BigDecimal discount = product.getPrice().multiply(discountPercentage).divide(BigDecimal.valueOf(100));
-        return product.getPrice().subtract(discount);
+        return Money.discountedPrice(product.getPrice(), discountPercentage);
     }
 }
@@ -0,0 +1,26 @@
+package com.shopfast.model.entity;
+
+import com.shopfast.event.CampaignChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Spring-managed JPA listener (Hibernate resolves it through the Spring bean container)
+@Component
+@RequiredArgsConstructor
+public class CampaignEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Campaign campaign) {
+        // The id of the lazy product proxy is known without loading it
+        Long productId = campaign.getProduct() != null ? campaign.getProduct().getId() : null;
+        eventPublisher.publishEvent(new CampaignChangedEvent(campaign.getId(), productId));
+    }
+}
@@ -1,5 +1,6 @@
 package com.shopfast.model.entity;
 
+import com.shopfast.model.Money;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -9,6 +10,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -23,8 +25,10 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class OrderItem {
 
+    // Pooled sequence: ids are handed out in blocks, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,6 +39,10 @@ public class OrderItem {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    // Campaign whose discounted price the line was sold at, null for full-price lines
+    @Column(name = "campaign_id")
+    private Long campaignId;
+
     @Column(nullable = false)
     private Integer quantity;
 
@@ -46,8 +54,8 @@ public class OrderItem {
 
     @PrePersist
     private void calculateTotalPrice() {
-        if (unitPrice != null && quantity != null) {
-            totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        if (totalPrice == null && unitPrice != null && quantity != null) {
+            totalPrice = Money.toAmount(Money.lineTotal(Money.toMinor(unitPrice), quantity));
         }
     }
 }
@@ -1,13 +1,18 @@
 package com.shopfast.model.entity;
 
+import com.shopfast.model.Money;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,7 +21,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@EntityListeners(ProductEntityListener.class)
+@Table(name = "products", indexes = @Index(name = "idx_products_category", columnList = "category, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,6 +41,10 @@ public class Product {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
 
+    // Price in minor units for order pricing, kept in step with price
+    @Transient
+    private long priceMinor;
+
     @Column(nullable = false)
     private Integer stockQuantity;
 
@@ -53,6 +63,17 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+        this.priceMinor = price != null ? Money.toMinor(price) : 0;
+    }
+
+    // Hibernate sets the field directly
+    @PostLoad
+    protected void onLoad() {
+        priceMinor = price != null ? Money.toMinor(price) : 0;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,4 +20,20 @@ public interface CampaignRepository extends JpaRepository<Campaign, Long> {
 
     @Query("SELECT c FROM Campaign c WHERE c.product = :product AND c.isActive = true AND c.startDate <= :now AND c.endDate >= :now")
     Optional<Campaign> findActiveCampaignByProduct(@Param("product") Product product, @Param("now") LocalDateTime now);
+
+    @Query("SELECT c FROM Campaign c JOIN FETCH c.product WHERE c.endDate >= :now")
+    List<Campaign> findCurrentAndUpcoming(@Param("now") LocalDateTime now);
+
+    @Query("SELECT c FROM Campaign c JOIN FETCH c.product WHERE c.product.id = :productId AND c.endDate >= :now")
+    List<Campaign> findCurrentAndUpcomingByProductId(@Param("productId") Long productId, @Param("now") LocalDateTime now);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT c FROM Campaign c JOIN FETCH c.product WHERE c.id = :id")
+    Optional<Campaign> findWithProductById(@Param("id") Long id);
+
+    @Query("SELECT COALESCE(c.soldQuantity, 0) FROM Campaign c WHERE c.id = :id")
+    Optional<Integer> findSoldQuantityById(@Param("id") Long id);
+
+    @Query("SELECT c.id, COALESCE(c.soldQuantity, 0) FROM Campaign c")
+    List<Object[]> findAllSoldQuantities();
 }
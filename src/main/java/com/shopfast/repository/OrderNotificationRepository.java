@@ -0,0 +1,35 @@
+package com.shopfast.repository;
+
+import com.shopfast.model.entity.OrderNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderNotificationRepository extends JpaRepository<OrderNotification, Long> {
+
+    @Query("SELECT n FROM OrderNotification n WHERE n.status = com.shopfast.model.entity.OrderNotification.Status.PENDING AND n.nextAttemptAt <= :now ORDER BY n.id")
+    List<OrderNotification> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderNotification n SET n.status = com.shopfast.model.entity.OrderNotification.Status.SENT, n.sentAt = :sentAt, n.attempts = n.attempts + 1 WHERE n.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderNotification n SET n.status = :status, n.attempts = :attempts, n.nextAttemptAt = :nextAttemptAt, n.lastError = :lastError WHERE n.id = :id")
+    int markAttemptFailed(@Param("id") Long id, @Param("status") OrderNotification.Status status,
+                          @Param("attempts") int attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("lastError") String lastError);
+
+    long countByStatus(OrderNotification.Status status);
+}
@@ -1,14 +1,23 @@
 package com.shopfast.repository;
 
+import com.shopfast.model.dto.OrderItemRow;
+import com.shopfast.model.dto.OrderSummaryRow;
+import com.shopfast.model.dto.SaleRow;
 import com.shopfast.model.entity.Order;
 import com.shopfast.model.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -17,9 +26,49 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByStatus(Order.OrderStatus status);
 
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt BETWEEN :start AND :end")
-    Long countOrdersBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
     @Query("SELECT o FROM Order o WHERE o.user = :user ORDER BY o.createdAt DESC")
     List<Order> findByUserOrderByCreatedAtDesc(@Param("user") User user);
+
+    // Order history projections: headers newest first (the id breaks created-at ties), then
+    // the lines of those orders in one query. No entity is loaded or managed.
+
+    String SUMMARY = "SELECT new com.shopfast.model.dto.OrderSummaryRow(o.id, u.id, u.email, o.totalAmount, "
+            + "o.status, o.shippingAddress, o.createdAt) FROM Order o JOIN o.user u WHERE u.id = :userId ";
+
+    String NEWEST_FIRST = " ORDER BY o.createdAt DESC, o.id DESC";
+
+    @Query(SUMMARY + NEWEST_FIRST)
+    List<OrderSummaryRow> findSummariesByUserId(@Param("userId") Long userId);
+
+    @Query(SUMMARY + NEWEST_FIRST)
+    List<OrderSummaryRow> findSummariesByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query(SUMMARY + "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))" + NEWEST_FIRST)
+    List<OrderSummaryRow> findSummariesByUserIdBefore(@Param("userId") Long userId,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query(SUMMARY + NEWEST_FIRST)
+    Stream<OrderSummaryRow> streamSummariesByUserId(@Param("userId") Long userId);
+
+    @Query("""
+            SELECT new com.shopfast.model.dto.OrderItemRow(i.order.id, i.id, p.id, p.name, i.quantity, i.unitPrice, i.totalPrice)
+            FROM OrderItem i JOIN i.product p WHERE i.order.id IN :orderIds ORDER BY i.id""")
+    List<OrderItemRow> findItemRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Lines of every order of the user, joined on the user rather than sent as an unbounded id list
+    @Query("""
+            SELECT new com.shopfast.model.dto.OrderItemRow(i.order.id, i.id, p.id, p.name, i.quantity, i.unitPrice, i.totalPrice)
+            FROM OrderItem i JOIN i.product p WHERE i.order.user.id = :userId ORDER BY i.id""")
+    List<OrderItemRow> findItemRowsByUserId(@Param("userId") Long userId);
+
+    // Lines of the orders placed since the given time, grouped by order, for the sales analytics rebuild
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT new com.shopfast.model.dto.SaleRow(o.id, o.createdAt, i.product.id, i.campaignId, i.quantity, i.totalPrice)
+            FROM OrderItem i JOIN i.order o
+            WHERE o.createdAt >= :since AND o.status <> com.shopfast.model.entity.Order.OrderStatus.CANCELLED
+            ORDER BY o.id""")
+    Stream<SaleRow> streamSalesSince(@Param("since") LocalDateTime since);
 }
@@ -1,23 +1,59 @@
 package com.shopfast.repository;
 
+import com.shopfast.model.dto.CatalogRow;
+import com.shopfast.model.dto.ProductTextRow;
 import com.shopfast.model.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    List<Product> findByIsActiveTrue();
+    List<Product> findByIsActiveTrueOrderByIdAsc();
 
-    List<Product> findByCategoryAndIsActiveTrue(String category);
+    // Loads every product for the catalog index in one pass
+    @Query("SELECT new com.shopfast.model.dto.CatalogRow(p.id, p.category, p.isActive, p.stockQuantity) FROM Product p ORDER BY p.id")
+    List<CatalogRow> findCatalogRows();
 
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity > 0 AND p.isActive = true")
-    List<Product> findInStockProducts();
+    @Query("SELECT new com.shopfast.model.dto.CatalogRow(p.id, p.category, p.isActive, p.stockQuantity) FROM Product p WHERE p.id = :id")
+    Optional<CatalogRow> findCatalogRowById(@Param("id") Long id);
+
+    // Loads the searchable text of every product for the search index in one pass
+    @Query("SELECT new com.shopfast.model.dto.ProductTextRow(p.id, p.name, p.description, p.category) FROM Product p ORDER BY p.id")
+    List<ProductTextRow> findTextRows();
+
+    @Query("SELECT new com.shopfast.model.dto.ProductTextRow(p.id, p.name, p.description, p.category) FROM Product p WHERE p.id = :id")
+    Optional<ProductTextRow> findTextRowById(@Param("id") Long id);
+
+    // Streams are read with a JDBC fetch size, so rows arrive in chunks instead of one list
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT p FROM Product p WHERE p.isActive = true ORDER BY p.id")
+    Stream<Product> streamActive();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT p FROM Product p WHERE p.category = :category AND p.isActive = true ORDER BY p.id")
+    Stream<Product> streamActiveByCategory(@Param("category") String category);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT p FROM Product p WHERE p.stockQuantity > 0 AND p.isActive = true ORDER BY p.id")
+    Stream<Product> streamInStock();
 
     @Query("SELECT p FROM Product p WHERE p.id = :id AND p.stockQuantity >= :quantity")
     Product findByIdWithStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
+
+    @Query("SELECT p.id, p.stockQuantity FROM Product p")
+    List<Object[]> findAllStockQuantities();
 }
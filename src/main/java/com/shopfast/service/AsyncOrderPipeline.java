@@ -0,0 +1,332 @@
+package com.shopfast.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopfast.config.AsyncOrderProperties;
+import com.shopfast.exception.OrderIntakeFullException;
+import com.shopfast.model.dto.OrderRequest;
+import com.shopfast.model.dto.OrderStatusResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Asynchronous order acceptance.
+ * An accepted order is written into the next slot of a preallocated ring and the caller
+ * gets a token at once. Stages then follow each other's sequence through the ring: a pool
+ * of pricing workers runs the per-item checks and the campaign lookup, a single stock
+ * thread reserves stock in acceptance order, and a single persistence thread places
+ * everything reserved so far in one transaction, up to the batch size. Notifications go
+ * through the outbox like those of synchronous orders. A slot is reused only after its
+ * order has been persisted, so a full ring turns new orders away instead of queueing them.
+ * Statuses are kept on the node that accepted the order.
+ */
+@Service
+@ConditionalOnProperty(name = "shopfast.orders.async.enabled", havingValue = "true")
+@Slf4j
+public class AsyncOrderPipeline {
+
+    private final OrderService orderService;
+
+    private final AsyncOrderProperties properties;
+
+    private final Slot[] ring;
+
+    private final int mask;
+
+    // Last sequence claimed by a caller
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    // Next sequence a pricing worker takes on
+    private final AtomicLong nextToPrice = new AtomicLong();
+
+    // Last sequence done by the stock thread, and by the persistence thread
+    private final AtomicLong reserved = new AtomicLong(-1);
+
+    private final AtomicLong persisted = new AtomicLong(-1);
+
+    private final Cache<String, OrderStatusResponse> statuses;
+
+    private final Counter acceptedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final DistributionSummary batchSize;
+
+    // Stages with nothing to do wait here until another sequence moves
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition advanced = lock.newCondition();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean accepting;
+
+    private volatile boolean running;
+
+    public AsyncOrderPipeline(OrderService orderService, AsyncOrderProperties properties, MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.properties = properties;
+        // At least one slot per pricing worker, so no worker waits on a slot another one holds
+        int size = 1;
+        while (size < Math.max(properties.getBufferSize(), properties.getPricingWorkers())) {
+            size <<= 1;
+        }
+        this.ring = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumStatuses())
+                .expireAfterWrite(properties.getStatusTtl())
+                .build();
+        this.acceptedCounter = meterRegistry.counter("shopfast.orders.async", "result", "accepted");
+        this.rejectedCounter = meterRegistry.counter("shopfast.orders.async", "result", "rejected");
+        this.batchSize = DistributionSummary.builder("shopfast.orders.async.batch-size")
+                .description("Accepted orders persisted per transaction")
+                .register(meterRegistry);
+        meterRegistry.gauge("shopfast.orders.async.backlog", this, pipeline -> pipeline.claimed.get() - pipeline.persisted.get());
+    }
+
+    /**
+     * Accepts an order for processing.
+     *
+     * @return the ACCEPTED status with the token to poll
+     * @throws OrderIntakeFullException if every slot holds an order that is not persisted yet
+     */
+    public OrderStatusResponse submit(OrderRequest request) {
+        long sequence;
+        do {
+            sequence = claimed.get() + 1;
+            if (!accepting || sequence - ring.length > persisted.get()) {
+                rejectedCounter.increment();
+                throw new OrderIntakeFullException("Order intake is full");
+            }
+        } while (!claimed.compareAndSet(sequence - 1, sequence));
+
+        OrderStatusResponse status = new OrderStatusResponse(UUID.randomUUID().toString(),
+                OrderStatusResponse.Status.ACCEPTED, null, null);
+        // Stored before the order is published, so it cannot overwrite the outcome
+        statuses.put(status.getToken(), status);
+        Slot slot = ring[index(sequence)];
+        slot.token = status.getToken();
+        slot.request = request;
+        slot.published = sequence;
+        signal();
+        acceptedCounter.increment();
+        return status;
+    }
+
+    // Null when the token is unknown or its status has expired
+    public OrderStatusResponse status(String token) {
+        return statuses.getIfPresent(token);
+    }
+
+    @PostConstruct
+    public void start() {
+        accepting = true;
+        running = true;
+        for (int i = 0; i < properties.getPricingWorkers(); i++) {
+            threads.add(Thread.ofPlatform().name("order-pricing-" + i).daemon().start(this::runPricing));
+        }
+        threads.add(Thread.ofPlatform().name("order-stock").daemon().start(this::runStock));
+        threads.add(Thread.ofPlatform().name("order-persistence").daemon().start(this::runPersistence));
+        log.info("Asynchronous order acceptance enabled ({} slots, {} pricing workers)",
+                ring.length, properties.getPricingWorkers());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting = false;
+        // Orders already accepted are still placed, unless that takes too long
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (persisted.get() < claimed.get() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        }
+    }
+
+    private void runPricing() {
+        while (running) {
+            long sequence = nextToPrice.getAndIncrement();
+            Slot slot = ring[index(sequence)];
+            if (!await(() -> slot.published == sequence)) {
+                return;
+            }
+            try {
+                orderService.checkItems(slot.request);
+                slot.priced = orderService.price(slot.request);
+            } catch (Throwable e) {
+                // Any failure only fails this order; the worker must keep taking sequences
+                slot.error = e;
+            }
+            slot.pricedSequence = sequence;
+            signal();
+        }
+    }
+
+    // Reserves in acceptance order, whichever worker priced the order
+    private void runStock() {
+        while (running) {
+            long sequence = reserved.get() + 1;
+            Slot slot = ring[index(sequence)];
+            if (!await(() -> slot.pricedSequence == sequence)) {
+                return;
+            }
+            if (slot.error == null) {
+                try {
+                    slot.prepared = orderService.reserve(slot.priced);
+                } catch (Throwable e) {
+                    slot.error = e;
+                }
+            }
+            reserved.set(sequence);
+            signal();
+        }
+    }
+
+    private void runPersistence() {
+        while (running) {
+            long first = persisted.get() + 1;
+            if (!await(() -> reserved.get() >= first)) {
+                return;
+            }
+            long last = Math.min(reserved.get(), first + properties.getMaxBatchSize() - 1);
+
+            List<Slot> batch = new ArrayList<>();
+            List<OrderService.PreparedOrder> prepared = new ArrayList<>();
+            for (long sequence = first; sequence <= last; sequence++) {
+                Slot slot = ring[index(sequence)];
+                if (slot.error != null) {
+                    failed(slot.token, slot.error);
+                } else {
+                    batch.add(slot);
+                    prepared.add(slot.prepared);
+                }
+            }
+            if (!prepared.isEmpty()) {
+                place(batch, prepared);
+            }
+            for (long sequence = first; sequence <= last; sequence++) {
+                ring[index(sequence)].clear();
+            }
+            persisted.set(last);
+        }
+    }
+
+    private void place(List<Slot> batch, List<OrderService.PreparedOrder> prepared) {
+        try {
+            List<OrderService.OrderOutcome> outcomes = orderService.placeOrders(prepared);
+            for (int i = 0; i < outcomes.size(); i++) {
+                OrderService.OrderOutcome outcome = outcomes.get(i);
+                if (outcome.error() != null) {
+                    failed(batch.get(i).token, outcome.error());
+                } else {
+                    statuses.put(batch.get(i).token, new OrderStatusResponse(batch.get(i).token,
+                            OrderStatusResponse.Status.PLACED, outcome.response(), null));
+                }
+            }
+            batchSize.record(prepared.size());
+        } catch (Throwable e) {
+            // placeOrders has released the reservations
+            log.error("Persisting {} accepted orders failed: {}", prepared.size(), e.getMessage());
+            batch.forEach(slot -> failed(slot.token, e));
+        }
+    }
+
+    private void failed(String token, Throwable error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        statuses.put(token, new OrderStatusResponse(token, OrderStatusResponse.Status.FAILED, null, message));
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    // Waits until the condition holds; false if the pipeline stopped first
+    private boolean await(BooleanSupplier ready) {
+        if (ready.getAsBoolean()) {
+            return true;
+        }
+        // Registered before checking again, so a signal sent in between is not missed
+        waiting.incrementAndGet();
+        lock.lock();
+        try {
+            while (!ready.getAsBoolean()) {
+                if (!running) {
+                    return false;
+                }
+                advanced.await(100, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+            waiting.decrementAndGet();
+        }
+    }
+
+    private void signal() {
+        if (waiting.get() > 0) {
+            lock.lock();
+            try {
+                advanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /*
+     * One order on its way through the stages. Each field is written by one stage before it
+     * moves its sequence on, and read by the next stage after it has seen that sequence.
+     */
+    private static final class Slot {
+
+        // Sequence of the order in the slot, and of the last one priced
+        private volatile long published = -1;
+
+        private volatile long pricedSequence = -1;
+
+        private String token;
+
+        private OrderRequest request;
+
+        private OrderService.PricedOrder priced;
+
+        private OrderService.PreparedOrder prepared;
+
+        private Throwable error;
+
+        void clear() {
+            token = null;
+            request = null;
+            priced = null;
+            prepared = null;
+            error = null;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.shopfast.service;
+
+import com.shopfast.event.CampaignChangedEvent;
+import com.shopfast.event.CampaignSoldOutEvent;
+import com.shopfast.event.ProductChangedEvent;
+import com.shopfast.model.Money;
+import com.shopfast.model.entity.Campaign;
+import com.shopfast.repository.CampaignRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of current and upcoming campaigns, keyed by product id.
+ * Product ids are kept in a sorted long[] and each product's campaigns in an array
+ * ordered by start time, so a lookup is two binary searches and allocates nothing.
+ * The whole index is rebuilt and swapped atomically on a schedule and whenever a
+ * campaign changes; a product change rebuilds only that product's campaigns, so a new
+ * price shows up in their discounted prices at once. Campaigns whose quota runs out in
+ * between are hidden as soon as the stock store reports a failed claim.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignIndex {
+
+    private final CampaignRepository campaignRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new Entry[0][]);
+
+    // Serializes snapshot swaps, so a rebuild that read the database earlier cannot overwrite a later one
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Campaigns that sold out since the last rebuild
+    private final Set<Long> soldOut = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Returns the campaign of the product that is active at the given time and still has
+     * quota left, or null. When campaigns overlap the most recently started one wins.
+     */
+    public Entry activeCampaign(long productId, long epochMillis) {
+        Snapshot current = snapshot;
+        int slot = Arrays.binarySearch(current.productIds, productId);
+        if (slot < 0) {
+            return null;
+        }
+        Entry[] campaigns = current.campaigns[slot];
+        for (int i = lastStartedAt(campaigns, epochMillis); i >= 0; i--) {
+            Entry entry = campaigns[i];
+            if (entry.isActiveAt(epochMillis) && (entry.maxQuantity() == null || !soldOut.contains(entry.id()))) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public Entry activeCampaign(long productId) {
+        return activeCampaign(productId, System.currentTimeMillis());
+    }
+
+    // Products that have a current or upcoming campaign
+    public long[] productIds() {
+        return snapshot.productIds.clone();
+    }
+
+    // Called when a quota claim fails, the rebuilt index takes the sold quantity from the database
+    public void markSoldOut(Long campaignId, Long productId) {
+        if (soldOut.add(campaignId)) {
+            log.info("Campaign {} sold out", campaignId);
+            eventPublisher.publishEvent(new CampaignSoldOutEvent(campaignId, productId));
+        }
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${shopfast.campaign-index.refresh-interval-ms:60000}",
+            initialDelayString = "${shopfast.campaign-index.refresh-interval-ms:60000}")
+    public void refresh() {
+        rebuildLock.lock();
+        try {
+            Map<Long, List<Entry>> byProduct = new TreeMap<>();
+            for (Campaign campaign : campaignRepository.findCurrentAndUpcoming(LocalDateTime.now())) {
+                byProduct.computeIfAbsent(campaign.getProduct().getId(), id -> new ArrayList<>()).add(Entry.of(campaign));
+            }
+
+            long[] productIds = new long[byProduct.size()];
+            Entry[][] campaigns = new Entry[byProduct.size()][];
+            int slot = 0;
+            for (Map.Entry<Long, List<Entry>> product : byProduct.entrySet()) {
+                productIds[slot] = product.getKey();
+                campaigns[slot] = byStart(product.getValue());
+                slot++;
+            }
+            snapshot = new Snapshot(productIds, campaigns);
+            soldOut.clear();
+            log.debug("Campaign index refreshed with {} products", productIds.length);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Both listeners run before the caches that hold campaign prices are evicted
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        refresh();
+    }
+
+    // The discounted prices follow the product price
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        rebuildLock.lock();
+        try {
+            Snapshot current = snapshot;
+            int slot = Arrays.binarySearch(current.productIds, event.productId());
+            if (slot < 0) {
+                // A product without campaigns; a new campaign comes with its own event
+                return;
+            }
+            Entry[][] campaigns = current.campaigns.clone();
+            campaigns[slot] = byStart(campaignRepository.findCurrentAndUpcomingByProductId(event.productId(), LocalDateTime.now())
+                    .stream().map(Entry::of).toList());
+            snapshot = new Snapshot(current.productIds, campaigns);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private static Entry[] byStart(List<Entry> entries) {
+        return entries.stream()
+                .sorted(Comparator.comparingLong(Entry::startMillis).thenComparingLong(Entry::endMillis))
+                .toArray(Entry[]::new);
+    }
+
+    // Index of the last campaign that started at or before the given time, or -1
+    private static int lastStartedAt(Entry[] campaigns, long epochMillis) {
+        int low = 0;
+        int high = campaigns.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (campaigns[mid].startMillis() <= epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private record Snapshot(long[] productIds, Entry[][] campaigns) {
+    }
+
+    /**
+     * Immutable view of a campaign with its discounted price precomputed, both as an amount
+     * for responses and in minor units for order pricing.
+     *
+     * @param maxQuantity campaign quota, or null when unlimited
+     */
+    public record Entry(Long id, Long productId, String name, BigDecimal discountPercentage,
+                        BigDecimal discountedPrice, long discountedPriceMinor, Integer maxQuantity, int soldQuantity,
+                        long startMillis, long endMillis, boolean active) {
+
+        static Entry of(Campaign campaign) {
+            ZoneId zone = ZoneId.systemDefault();
+            long discountedPriceMinor = Money.discountedPrice(campaign.getProduct().getPriceMinor(),
+                    Money.toBasisPoints(campaign.getDiscountPercentage()));
+            return new Entry(campaign.getId(), campaign.getProduct().getId(), campaign.getName(),
+                    campaign.getDiscountPercentage(), Money.toAmount(discountedPriceMinor), discountedPriceMinor,
+                    campaign.getMaxQuantity(),
+                    campaign.getSoldQuantity() != null ? campaign.getSoldQuantity() : 0,
+                    campaign.getStartDate().atZone(zone).toInstant().toEpochMilli(),
+                    campaign.getEndDate().atZone(zone).toInstant().toEpochMilli(),
+                    Boolean.TRUE.equals(campaign.getIsActive()));
+        }
+
+        public boolean isActiveAt(long epochMillis) {
+            return active
+                    && startMillis <= epochMillis
+                    && endMillis > epochMillis
+                    && (maxQuantity == null || soldQuantity < maxQuantity);
+        }
+    }
+}
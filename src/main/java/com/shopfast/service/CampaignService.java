@@ -6,6 +6,7 @@ import com.shopfast.repository.CampaignRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,6 +18,9 @@ public class CampaignService {
 
     private final CampaignRepository campaignRepository;
 
+    private final SingleFlight<Long, CampaignResponse> campaignLoads;
+
+    @Transactional(readOnly = true)
     public List<CampaignResponse> getActiveCampaigns() {
         List<Campaign> campaigns = campaignRepository.findActiveCampaigns(LocalDateTime.now());
         return campaigns.stream()
@@ -25,8 +29,13 @@ public class CampaignService {
                 .toList();
     }
 
+    // Concurrent requests for the same campaign share one query
     public CampaignResponse getCampaignById(Long id) {
-        Campaign campaign = campaignRepository.findById(id)
+        return campaignLoads.load(id, this::loadCampaign);
+    }
+
+    private CampaignResponse loadCampaign(Long id) {
+        Campaign campaign = campaignRepository.findWithProductById(id)
                 .orElseThrow(() -> new RuntimeException("Campaign not found"));
         return convertToResponse(campaign);
     }
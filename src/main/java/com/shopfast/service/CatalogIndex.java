@@ -0,0 +1,297 @@
+package com.shopfast.service;
+
+import com.shopfast.event.ProductChangedEvent;
+import com.shopfast.event.ProductStockChangedEvent;
+import com.shopfast.model.dto.CatalogRow;
+import com.shopfast.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of the catalog for the category and in-stock listings.
+ * Each category maps to a sorted long[] of product ids. Active and in-stock products
+ * are bitsets whose bit positions are the product ids, which come from an identity
+ * column and are dense. A listing is a walk over 64-bit words: ids are never boxed and
+ * the database is not read. A changed product only updates its own bits and category
+ * entry, copying what it touches, and the index is rebuilt on a schedule. The in-stock bit
+ * of a product is updated after each committed order that changes its stock; the database
+ * is only asked for stores without their own counters. Changes made while a rebuild reads
+ * the catalog are replayed on its result, so the swap does not lose them.
+ * This index serves the keyset-paged listings; the unpaged category and in-stock listings
+ * are served from CatalogSnapshots.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogIndex {
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final ProductRepository productRepository;
+
+    private final StockStore stockStore;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), new long[0], new AtomicLongArray(0));
+
+    // Serializes changes to the snapshot; readers never take it
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Products changed while a rebuild runs, replayed once it is swapped in; null otherwise
+    private Set<Long> changedDuringRefresh;
+
+    // Active products after the given id, in id order
+    public long[] active(long afterId, int limit) {
+        Snapshot current = snapshot;
+        return collect(current.active(), null, afterId, limit);
+    }
+
+    // Active products that are in stock, after the given id, in id order
+    public long[] inStock(long afterId, int limit) {
+        Snapshot current = snapshot;
+        return collect(current.active(), current.inStock(), afterId, limit);
+    }
+
+    // Active products of the category after the given id, in id order
+    public long[] activeInCategory(String category, long afterId, int limit) {
+        Snapshot current = snapshot;
+        long[] ids = current.categories().getOrDefault(category, NO_IDS);
+        int from = Arrays.binarySearch(ids, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+
+        long[] page = new long[Math.min(limit, ids.length - from)];
+        int found = 0;
+        for (int i = from; i < ids.length && found < page.length; i++) {
+            if (isSet(current.active(), ids[i])) {
+                page[found++] = ids[i];
+            }
+        }
+        return found == page.length ? page : Arrays.copyOf(page, found);
+    }
+
+    public boolean isActive(long productId) {
+        return isSet(snapshot.active(), productId);
+    }
+
+    public boolean isInStock(long productId) {
+        AtomicLongArray inStock = snapshot.inStock();
+        int word = (int) (productId >> 6);
+        return word < inStock.length() && (inStock.get(word) & 1L << productId) != 0;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${shopfast.catalog-index.refresh-interval-ms:60000}",
+            initialDelayString = "${shopfast.catalog-index.refresh-interval-ms:60000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            writeLock.lock();
+            try {
+                changedDuringRefresh = new HashSet<>();
+            } finally {
+                writeLock.unlock();
+            }
+            Snapshot built = build(productRepository.findCatalogRows());
+            Set<Long> changed;
+            writeLock.lock();
+            try {
+                changed = changedDuringRefresh;
+                changedDuringRefresh = null;
+                snapshot = built;
+            } finally {
+                writeLock.unlock();
+            }
+            changed.forEach(this::update);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        update(event.productId());
+    }
+
+    // Sets or clears the in-stock bit of products whose stock may have crossed zero
+    @EventListener
+    public void onStockChanged(ProductStockChangedEvent event) {
+        // Stores without their own counters are asked through the database, outside the lock
+        Map<Long, Boolean> fromDatabase = new HashMap<>();
+        for (Long productId : event.productIds()) {
+            if (stockStore.available(productId, -1) < 0) {
+                fromDatabase.put(productId, productRepository.findStockQuantityById(productId).orElse(0) > 0);
+            }
+        }
+        writeLock.lock();
+        try {
+            AtomicLongArray inStock = snapshot.inStock();
+            for (Long productId : event.productIds()) {
+                // Counters are read under the lock, so events that race each other still
+                // leave the bit of the latest stock
+                int available = stockStore.available(productId, -1);
+                Boolean stocked = available >= 0 ? Boolean.valueOf(available > 0) : fromDatabase.get(productId);
+                int word = (int) (productId >> 6);
+                if (stocked != null && word < inStock.length()) {
+                    long bit = 1L << productId;
+                    inStock.getAndUpdate(word, value -> stocked ? value | bit : value & ~bit);
+                }
+                if (changedDuringRefresh != null) {
+                    changedDuringRefresh.add(productId);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Snapshot build(List<CatalogRow> rows) {
+        long maxId = rows.isEmpty() ? 0 : rows.get(rows.size() - 1).id();
+        int words = Math.toIntExact((maxId >> 6) + 1);
+        long[] active = new long[words];
+        long[] inStock = new long[words];
+
+        Map<String, long[]> categories = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        for (CatalogRow row : rows) {
+            long id = row.id();
+            if (Boolean.TRUE.equals(row.isActive())) {
+                active[(int) (id >> 6)] |= 1L << id;
+            }
+            if (hasStock(row)) {
+                inStock[(int) (id >> 6)] |= 1L << id;
+            }
+            if (row.category() != null) {
+                // Rows come in id order, so every category array is sorted
+                int size = sizes.merge(row.category(), 1, Integer::sum);
+                long[] ids = categories.computeIfAbsent(row.category(), category -> new long[16]);
+                if (size > ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                    categories.put(row.category(), ids);
+                }
+                ids[size - 1] = id;
+            }
+        }
+        categories.replaceAll((category, ids) -> Arrays.copyOf(ids, sizes.get(category)));
+        log.debug("Catalog index built with {} products in {} categories", rows.size(), categories.size());
+        return new Snapshot(Map.copyOf(categories), active, new AtomicLongArray(inStock));
+    }
+
+    // Re-reads one product and swaps in a snapshot with only its bits and category entry changed
+    private void update(Long productId) {
+        CatalogRow row = productRepository.findCatalogRowById(productId).orElse(null);
+        boolean stocked = row != null && hasStock(row);
+        writeLock.lock();
+        try {
+            if (changedDuringRefresh != null) {
+                changedDuringRefresh.add(productId);
+            }
+            Snapshot current = snapshot;
+            int words = Math.max(current.active().length, (int) (productId >> 6) + 1);
+            long[] active = Arrays.copyOf(current.active(), words);
+            AtomicLongArray inStock = current.inStock();
+            if (words > inStock.length()) {
+                long[] grown = new long[words];
+                for (int word = 0; word < inStock.length(); word++) {
+                    grown[word] = inStock.get(word);
+                }
+                inStock = new AtomicLongArray(grown);
+            }
+            long bit = 1L << productId;
+            int word = (int) (productId >> 6);
+            active[word] = row != null && Boolean.TRUE.equals(row.isActive()) ? active[word] | bit : active[word] & ~bit;
+            inStock.getAndUpdate(word, value -> stocked ? value | bit : value & ~bit);
+
+            Map<String, long[]> categories = new HashMap<>(current.categories());
+            String category = row != null ? row.category() : null;
+            categories.replaceAll((name, ids) -> name.equals(category) ? ids : without(ids, productId));
+            if (category != null) {
+                categories.put(category, with(categories.getOrDefault(category, NO_IDS), productId));
+            }
+            categories.values().removeIf(ids -> ids.length == 0);
+            snapshot = new Snapshot(Map.copyOf(categories), active, inStock);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean hasStock(CatalogRow row) {
+        return stockStore.available(row.id(), row.stockQuantity() != null ? row.stockQuantity() : 0) > 0;
+    }
+
+    // The sorted ids with id added, or the same array if it is already there
+    private static long[] with(long[] ids, long id) {
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) {
+            return ids;
+        }
+        at = -at - 1;
+        long[] added = new long[ids.length + 1];
+        System.arraycopy(ids, 0, added, 0, at);
+        added[at] = id;
+        System.arraycopy(ids, at, added, at + 1, ids.length - at);
+        return added;
+    }
+
+    // The sorted ids without id, or the same array if it is not there
+    private static long[] without(long[] ids, long id) {
+        int at = Arrays.binarySearch(ids, id);
+        if (at < 0) {
+            return ids;
+        }
+        long[] removed = new long[ids.length - 1];
+        System.arraycopy(ids, 0, removed, 0, at);
+        System.arraycopy(ids, at + 1, removed, at, ids.length - at - 1);
+        return removed;
+    }
+
+    // Ids of set bits in active (and in inStock when given) after afterId, in id order
+    private static long[] collect(long[] active, AtomicLongArray inStock, long afterId, int limit) {
+        long[] page = new long[Math.max(1, Math.min(limit, 1024))];
+        int found = 0;
+        long start = Math.max(0, afterId + 1);
+        for (int word = (int) Math.min(start >> 6, active.length); word < active.length && found < limit; word++) {
+            long bits = active[word];
+            if (inStock != null) {
+                bits &= inStock.get(word);
+            }
+            if (word == start >> 6) {
+                bits &= -1L << start;
+            }
+            while (bits != 0 && found < limit) {
+                if (found == page.length) {
+                    page = Arrays.copyOf(page, page.length * 2);
+                }
+                page[found++] = ((long) word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return Arrays.copyOf(page, found);
+    }
+
+    private static boolean isSet(long[] bits, long id) {
+        int word = (int) (id >> 6);
+        return word < bits.length && (bits[word] & 1L << id) != 0;
+    }
+
+    /**
+     * @param active  bit per product id, set for active products; never modified once published
+     * @param inStock bit per product id, set while the product has stock
+     */
+    private record Snapshot(Map<String, long[]> categories, long[] active, AtomicLongArray inStock) {
+    }
+}
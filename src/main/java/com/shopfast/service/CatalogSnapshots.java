@@ -0,0 +1,220 @@
+package com.shopfast.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopfast.config.SnapshotProperties;
+import com.shopfast.event.CampaignChangedEvent;
+import com.shopfast.event.ProductChangedEvent;
+import com.shopfast.event.ProductStockChangedEvent;
+import com.shopfast.model.dto.CampaignResponse;
+import com.shopfast.model.dto.ProductResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Serialized JSON of the product listings and the active campaigns, kept as byte arrays
+ * with a strong ETag each, so a listing request only copies bytes.
+ * Stock, product and campaign changes mark the snapshots stale and schedule a rebuild on a
+ * background thread, at most once per min-rebuild-interval; requests keep getting the previous
+ * bytes meanwhile and never wait for a rebuild, except for the very first one.
+ * A rebuild reads every product and the active campaigns and serializes every listing, and
+ * every order changes stock, so under steady order load this is one full product scan per
+ * min-rebuild-interval (5 a second at 200ms), whatever the request rate. Its time is
+ * recorded as shopfast.snapshots.rebuild.
+ */
+@Service
+@Slf4j
+public class CatalogSnapshots {
+
+    private static final Snapshot EMPTY_LIST = snapshotOf("[]".getBytes(StandardCharsets.UTF_8));
+
+    private final ProductService productService;
+
+    private final CampaignService campaignService;
+
+    private final ObjectMapper objectMapper;
+
+    private final SnapshotProperties properties;
+
+    private final Timer rebuildTimer;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Rebuilds run here, off the request path; at most one is scheduled at a time
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("catalog-snapshots").daemon().factory());
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    // Bumped on every change; a catalog built at an older version is stale
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Catalog catalog;
+
+    public CatalogSnapshots(ProductService productService, CampaignService campaignService, ObjectMapper objectMapper,
+                            SnapshotProperties properties, MeterRegistry meterRegistry) {
+        this.productService = productService;
+        this.campaignService = campaignService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.rebuildTimer = Timer.builder("shopfast.snapshots.rebuild")
+                .description("Time to rebuild and serialize the listing snapshots")
+                .register(meterRegistry);
+    }
+
+    public Snapshot allProducts() {
+        return current().products();
+    }
+
+    public Snapshot productsByCategory(String category) {
+        return current().categories().getOrDefault(category, EMPTY_LIST);
+    }
+
+    public Snapshot inStockProducts() {
+        return current().inStock();
+    }
+
+    public Snapshot activeCampaigns() {
+        return current().campaigns();
+    }
+
+    @EventListener
+    public void onStockChanged(ProductStockChangedEvent event) {
+        changed();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        changed();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        changed();
+    }
+
+    // Campaigns start and end without any event
+    @Scheduled(fixedDelayString = "${shopfast.snapshots.max-age-ms:30000}",
+            initialDelayString = "${shopfast.snapshots.max-age-ms:30000}")
+    public void expire() {
+        changed();
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    private Catalog current() {
+        Catalog current = catalog;
+        if (current != null) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            if (catalog == null) {
+                rebuild();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+        return catalog;
+    }
+
+    private void changed() {
+        version.incrementAndGet();
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            Catalog current = catalog;
+            long sinceBuilt = current == null ? Long.MAX_VALUE : System.nanoTime() - current.builtAtNanos();
+            long delay = Math.max(0, properties.getMinRebuildInterval().toNanos() - sinceBuilt);
+            rebuilder.schedule(this::rebuildIfStale, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void rebuildIfStale() {
+        // Cleared first, so a change made during the rebuild schedules the next one
+        rebuildScheduled.set(false);
+        rebuildLock.lock();
+        try {
+            // Nothing to refresh until the first request has built the snapshots
+            if (catalog != null && catalog.version() != version.get()) {
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot rebuild failed, serving the previous snapshots: {}", e.getMessage());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        long building = version.get();
+        long start = System.nanoTime();
+        List<ProductResponse> products = productService.getAllProducts();
+        List<CampaignResponse> campaigns = campaignService.getActiveCampaigns();
+
+        Map<String, Snapshot> categories = new HashMap<>();
+        products.stream()
+                .filter(product -> product.getCategory() != null)
+                .collect(Collectors.groupingBy(ProductResponse::getCategory))
+                .forEach((category, rows) -> categories.put(category, serialize(rows)));
+        List<ProductResponse> inStock = products.stream()
+                .filter(product -> product.getStockQuantity() != null && product.getStockQuantity() > 0)
+                .toList();
+
+        catalog = new Catalog(building, System.nanoTime(), serialize(products), Map.copyOf(categories),
+                serialize(inStock), serialize(campaigns));
+        rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Catalog snapshots rebuilt: {} products, {} categories, {} campaigns",
+                products.size(), categories.size(), campaigns.size());
+    }
+
+    private Snapshot serialize(List<?> rows) {
+        try {
+            return snapshotOf(objectMapper.writeValueAsBytes(rows));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize catalog snapshot", e);
+        }
+    }
+
+    private static Snapshot snapshotOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new Snapshot(body, HexFormat.of().formatHex(digest, 0, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Serialized JSON body and its strong ETag (a hash of the bytes, so an unchanged
+     * listing keeps its ETag across rebuilds). The body must not be modified.
+     */
+    public record Snapshot(byte[] body, String etag) {
+    }
+
+    private record Catalog(long version, long builtAtNanos, Snapshot products, Map<String, Snapshot> categories,
+                           Snapshot inStock, Snapshot campaigns) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.shopfast.service;
+
+import com.shopfast.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive limit on the number of requests processed at once.
+ * The limit follows a latency gradient: every window the average latency of each request
+ * class is compared with its baseline latency. Once latency grows past the tolerance the
+ * limit is cut by the ratio; while latency holds and the limit is in use it grows by its
+ * square root. So the limit settles where more concurrency only adds queueing, and
+ * requests beyond it are turned away at once instead of waiting. Browsing may only take
+ * part of the limit, so order placement keeps capacity when the catalog is busy.
+ * Only order latency cuts the overall limit; slow browsing cuts browsing's own limit.
+ * Only requests released with a sample count, so fast failures cannot pull the baseline down.
+ */
+@Service
+@Slf4j
+public class ConcurrencyLimiter {
+
+    public enum Priority {
+        ORDERS,
+        BROWSING
+    }
+
+    private final ConcurrencyLimitProperties properties;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Highest in-flight count of the current window
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    private final Map<Priority, Latency> latencies = new EnumMap<>(Priority.class);
+
+    private final Map<Priority, Counter> admitted = new EnumMap<>(Priority.class);
+
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+
+    private volatile double limit;
+
+    // Browsing's own limit, further capped by its share of the overall limit
+    private volatile double browsingLimit;
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+        this.browsingLimit = properties.getInitialLimit() * properties.getBrowsingShare();
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            latencies.put(priority, new Latency(properties.getBaselineWindows()));
+            admitted.put(priority, meterRegistry.counter("shopfast.concurrency.requests", "priority", tag, "result", "admitted"));
+            rejected.put(priority, meterRegistry.counter("shopfast.concurrency.requests", "priority", tag, "result", "rejected"));
+        }
+        meterRegistry.gauge("shopfast.concurrency.limit", this, ConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("shopfast.concurrency.in-flight", inFlight);
+    }
+
+    /**
+     * Admits the request if the limit of its priority has room.
+     *
+     * @return a permit to release when the request is done, or null if the request must be rejected
+     */
+    public Permit tryAcquire(Priority priority) {
+        int capacity = capacity(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= capacity) {
+                rejected.get(priority).increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                admitted.get(priority).increment();
+                return new Permit(priority, System.nanoTime());
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    void onSample(Priority priority, long latencyNanos, long now) {
+        latencies.get(priority).add(latencyNanos);
+        long start = windowStart.get();
+        if (now - start >= properties.getWindow().toNanos() && windowStart.compareAndSet(start, now)) {
+            adjust();
+        }
+    }
+
+    private int capacity(Priority priority) {
+        double overall = limit;
+        return priority == Priority.ORDERS
+                ? (int) overall
+                : Math.max(1, (int) Math.min(browsingLimit, overall * properties.getBrowsingShare()));
+    }
+
+    // Runs on the one thread that closed the window
+    private void adjust() {
+        double orders = latencies.get(Priority.ORDERS).closeWindow(properties.getMinWindowSamples(), properties.getTolerance());
+        double browsing = latencies.get(Priority.BROWSING).closeWindow(properties.getMinWindowSamples(), properties.getTolerance());
+        int peak = peakInFlight.getAndSet(inFlight.get());
+
+        double current = limit;
+        if (!Double.isNaN(orders)) {
+            limit = next(current, orders, peak, properties.getMaxLimit());
+        } else if (browsing >= 1.0) {
+            // Healthy browsing may still grow the overall limit, so its share can grow with it
+            limit = next(current, browsing, peak, properties.getMaxLimit());
+        }
+        if (!Double.isNaN(browsing)) {
+            browsingLimit = next(browsingLimit, browsing, peak, limit * properties.getBrowsingShare());
+        }
+        if ((int) limit != (int) current) {
+            log.debug("Concurrency limit {} -> {} (orders gradient {}, browsing gradient {})",
+                    (int) current, (int) limit, orders, browsing);
+        }
+    }
+
+    private double next(double current, double gradient, int peak, double max) {
+        double next;
+        if (gradient < 1.0) {
+            // Back off at once, by at most half
+            next = current * Math.max(0.5, gradient);
+        } else {
+            // Only grow while the limit is actually being used
+            next = peak * 2 >= current ? current + Math.sqrt(current) : current;
+        }
+        return Math.max(properties.getMinLimit(), Math.min(max, next));
+    }
+
+    public final class Permit {
+
+        private final Priority priority;
+
+        private final long startNanos;
+
+        private Permit(Priority priority, long startNanos) {
+            this.priority = priority;
+            this.startNanos = startNanos;
+        }
+
+        public void release() {
+            release(true);
+        }
+
+        // Without a sample the request only frees its place
+        public void release(boolean sample) {
+            inFlight.decrementAndGet();
+            if (sample) {
+                long now = System.nanoTime();
+                onSample(priority, now - startNanos, now);
+            }
+        }
+    }
+
+    /*
+     * Latency of one request class: the current window and a baseline. The baseline is the
+     * fastest of the recent window averages, so it tracks the latency without load, a
+     * slowdown caused by overload does not become the norm, and an odd fast window is
+     * forgotten once it leaves the ring.
+     */
+    private static final class Latency {
+
+        private final LongAdder sum = new LongAdder();
+
+        private final LongAdder count = new LongAdder();
+
+        // Recent window averages, oldest overwritten first; 0 marks an unused entry
+        private final double[] averages;
+
+        private int next;
+
+        Latency(int baselineWindows) {
+            this.averages = new double[Math.max(1, baselineWindows)];
+        }
+
+        void add(long nanos) {
+            sum.add(nanos);
+            count.increment();
+        }
+
+        // Tolerated latency over the window average, or NaN when the window has too few samples.
+        // Either way the window starts over, so a later window never averages in older samples.
+        double closeWindow(int minSamples, double tolerance) {
+            long samples = count.sumThenReset();
+            long total = sum.sumThenReset();
+            if (samples < minSamples || samples == 0) {
+                return Double.NaN;
+            }
+            double average = (double) total / samples;
+            averages[next] = average;
+            next = (next + 1) % averages.length;
+            double baseline = average;
+            for (double recent : averages) {
+                if (recent > 0 && recent < baseline) {
+                    baseline = recent;
+                }
+            }
+            return tolerance * baseline / average;
+        }
+    }
+}
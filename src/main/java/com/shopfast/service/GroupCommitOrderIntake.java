@@ -0,0 +1,170 @@
+package com.shopfast.service;
+
+import com.shopfast.config.GroupCommitProperties;
+import com.shopfast.exception.OrderIntakeFullException;
+import com.shopfast.model.dto.OrderRequest;
+import com.shopfast.model.dto.OrderResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for order creation.
+ * Callers hand their order to a single committer thread, which collects the orders
+ * arriving within a short window (or until the group is full), reserves their stock,
+ * and persists the whole group in one transaction. Each caller gets its own outcome
+ * through a future. If the group transaction itself fails, for example on a constraint
+ * violation at flush time, its orders are committed again one at a time, so one bad order
+ * does not fail the rest of its group. Whatever a group throws, errors included,
+ * completes its futures and leaves the committer running.
+ */
+@Service
+@ConditionalOnProperty(name = "shopfast.orders.group-commit.enabled", havingValue = "true")
+@Slf4j
+public class GroupCommitOrderIntake {
+
+    private final OrderService orderService;
+
+    private final GroupCommitProperties properties;
+
+    private final BlockingQueue<PendingOrder> queue;
+
+    private final DistributionSummary groupSize;
+
+    private volatile boolean running;
+
+    private Thread committer;
+
+    public GroupCommitOrderIntake(OrderService orderService, GroupCommitProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.groupSize = DistributionSummary.builder("shopfast.orders.group-commit.size")
+                .description("Orders committed per transaction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an order for the next group commit.
+     *
+     * @throws OrderIntakeFullException if the intake queue is full
+     */
+    public CompletableFuture<OrderResponse> submit(OrderRequest request) {
+        // Per-item checks run on the caller's thread, only the commit is shared
+        orderService.checkItems(request);
+
+        PendingOrder pending = new PendingOrder(request, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new OrderIntakeFullException("Order intake is full");
+        }
+        return pending.result();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        committer = Thread.ofPlatform().name("order-group-commit").daemon().start(this::run);
+        log.info("Order group commit enabled (window {}, max {} orders)",
+                properties.getWindow(), properties.getMaxBatchSize());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        committer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void run() {
+        List<PendingOrder> group = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!group.isEmpty()) {
+                try {
+                    commit(group);
+                } catch (Throwable e) {
+                    // Futures already completed keep their result
+                    log.error("Group commit of {} orders failed: {}", group.size(), e.toString());
+                    group.forEach(pending -> pending.result().completeExceptionally(e));
+                }
+                group.clear();
+            }
+        }
+    }
+
+    // Waits for the first order, then keeps the group open for the configured window
+    private void collect(List<PendingOrder> group) throws InterruptedException {
+        PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        group.add(first);
+
+        long deadline = System.nanoTime() + properties.getWindow().toNanos();
+        while (group.size() < properties.getMaxBatchSize()) {
+            long remaining = deadline - System.nanoTime();
+            PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    private void commit(List<PendingOrder> group) {
+        List<PendingOrder> reserved = new ArrayList<>(group.size());
+        List<OrderService.PreparedOrder> prepared = new ArrayList<>(group.size());
+        for (PendingOrder pending : group) {
+            try {
+                prepared.add(orderService.prepare(pending.request()));
+                reserved.add(pending);
+            } catch (Throwable e) {
+                pending.result().completeExceptionally(e);
+            }
+        }
+        if (prepared.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<OrderService.OrderOutcome> outcomes = orderService.placeOrders(prepared);
+            for (int i = 0; i < outcomes.size(); i++) {
+                OrderService.OrderOutcome outcome = outcomes.get(i);
+                if (outcome.error() != null) {
+                    reserved.get(i).result().completeExceptionally(outcome.error());
+                } else {
+                    reserved.get(i).result().complete(outcome.response());
+                }
+            }
+            groupSize.record(prepared.size());
+        } catch (Throwable e) {
+            // placeOrders has released the reservations, so each order reserves again on its own
+            if (reserved.size() > 1) {
+                log.warn("Group commit of {} orders failed, committing them one by one: {}", reserved.size(), e.toString());
+                reserved.forEach(pending -> commit(List.of(pending)));
+            } else {
+                log.error("Commit of order failed: {}", e.toString());
+                reserved.get(0).result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private record PendingOrder(OrderRequest request, CompletableFuture<OrderResponse> result) {
+    }
+}
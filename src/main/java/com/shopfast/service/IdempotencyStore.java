@@ -0,0 +1,112 @@
+package com.shopfast.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopfast.config.IdempotencyProperties;
+import com.shopfast.exception.IdempotencyKeyConflictException;
+import com.shopfast.exception.InvalidRequestException;
+import com.shopfast.model.dto.OrderRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates order requests carrying an Idempotency-Key.
+ * The first request with a key runs and publishes its result through a future kept in a
+ * bounded, expiring Caffeine cache. Concurrent duplicates wait on that future and later
+ * duplicates get the stored response, so a retry never places a second order. Failed
+ * executions are forgotten so the client can retry them. A duplicate waits at most the
+ * wait timeout for the first request and then gets a conflict.
+ */
+@Service
+@Slf4j
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Execution> executions;
+
+    private final Duration waitTimeout;
+
+    private final Counter executed;
+
+    private final Counter replayed;
+
+    public IdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        this.waitTimeout = properties.getWaitTimeout();
+        this.executed = meterRegistry.counter("shopfast.orders.idempotency", "result", "executed");
+        this.replayed = meterRegistry.counter("shopfast.orders.idempotency", "result", "replayed");
+    }
+
+    /**
+     * Runs the order once per key and returns the same response for every repeat.
+     * The response is the created order, or the order token when orders are accepted asynchronously.
+     *
+     * @throws InvalidRequestException if the key is blank or too long
+     * @throws IdempotencyKeyConflictException if the key was used for a different request, or
+     *         the first request with it is still running after the wait timeout
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, OrderRequest request, Supplier<T> order) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        Execution mine = new Execution(request, new CompletableFuture<>());
+        Execution existing = executions.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            if (!existing.request().equals(request)) {
+                throw new IdempotencyKeyConflictException("Idempotency-Key already used for a different order");
+            }
+            replayed.increment();
+            log.info("Replaying order for Idempotency-Key {}", key);
+            return (T) await(existing.result());
+        }
+
+        executed.increment();
+        try {
+            T response = order.get();
+            mine.result().complete(response);
+            return response;
+        } catch (Throwable e) {
+            // Errors too: duplicates waiting on the future must not wait for good
+            executions.asMap().remove(key, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyConflictException("Order with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private record Execution(OrderRequest request, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.shopfast.service;
+
+import com.shopfast.exception.OutOfStockException;
+import com.shopfast.repository.CampaignRepository;
+import com.shopfast.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stock ledger keyed by product id (single node).
+ * Stock is reserved with a CAS loop on a per-product counter, so concurrent orders
+ * never take a row lock on the products table. Campaign quotas are claimed the same
+ * way. Also serves as the offline stand-in for {@link RedisStockStore}.
+ */
+@Service
+@ConditionalOnProperty(name = "shopfast.stock.store", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryLedger implements StockStore {
+
+    private final ProductRepository productRepository;
+
+    private final CampaignRepository campaignRepository;
+
+    private final StockReconciler stockReconciler;
+
+    private final ConcurrentHashMap<Long, AtomicInteger> stock = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, AtomicInteger> campaignSold = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (Object[] row : productRepository.findAllStockQuantities()) {
+            stock.putIfAbsent((Long) row[0], new AtomicInteger((Integer) row[1]));
+        }
+        for (Object[] row : campaignRepository.findAllSoldQuantities()) {
+            campaignSold.putIfAbsent((Long) row[0], new AtomicInteger((Integer) row[1]));
+        }
+        log.info("Inventory ledger loaded stock for {} products", stock.size());
+    }
+
+    @Override
+    public Reservation reserve(List<StockLine> lines) {
+        List<ReservedLine> reserved = new ArrayList<>(lines.size());
+        try {
+            for (StockLine line : lines) {
+                AtomicInteger counter = stockCounter(line.productId());
+                if (!tryDecrement(counter, line.quantity())) {
+                    throw new OutOfStockException("Not enough stock for product: " + line.productId());
+                }
+                boolean discounted;
+                try {
+                    discounted = claimCampaign(line);
+                } catch (RuntimeException e) {
+                    // This line is not in reserved yet
+                    counter.addAndGet(line.quantity());
+                    throw e;
+                }
+                reserved.add(new ReservedLine(line.productId(), line.quantity(), line.campaignId(), discounted));
+            }
+        } catch (RuntimeException e) {
+            // Also an unknown product or a failed read: earlier lines must not keep their stock
+            release(new Reservation(reserved));
+            throw e;
+        }
+        return new Reservation(List.copyOf(reserved));
+    }
+
+    @Override
+    public void release(Reservation reservation) {
+        for (ReservedLine line : reservation.lines()) {
+            stock.get(line.productId()).addAndGet(line.quantity());
+            if (line.discounted()) {
+                campaignSold.get(line.campaignId()).addAndGet(-line.quantity());
+            }
+        }
+    }
+
+    @Override
+    public void commit(Reservation reservation) {
+        stockReconciler.record(reservation);
+    }
+
+    @Override
+    public int available(Long productId, int fallback) {
+        AtomicInteger counter = stock.get(productId);
+        return counter != null ? counter.get() : fallback;
+    }
+
+    private boolean claimCampaign(StockLine line) {
+        if (line.campaignId() == null) {
+            return false;
+        }
+        AtomicInteger sold = campaignCounter(line.campaignId());
+        if (line.campaignMaxQuantity() == null) {
+            sold.addAndGet(line.quantity());
+            return true;
+        }
+        int current;
+        do {
+            current = sold.get();
+            if (current + line.quantity() > line.campaignMaxQuantity()) {
+                return false;
+            }
+        } while (!sold.compareAndSet(current, current + line.quantity()));
+        return true;
+    }
+
+    private static boolean tryDecrement(AtomicInteger counter, int quantity) {
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    // The database read happens outside computeIfAbsent: the map locks its bin with
+    // synchronized, which would pin a virtual thread for the whole query
+    private AtomicInteger stockCounter(Long productId) {
+        AtomicInteger counter = stock.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        int quantity = productRepository.findStockQuantityById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        counter = stock.putIfAbsent(productId, new AtomicInteger(quantity));
+        return counter != null ? counter : stock.get(productId);
+    }
+
+    private AtomicInteger campaignCounter(Long campaignId) {
+        AtomicInteger counter = campaignSold.get(campaignId);
+        if (counter != null) {
+            return counter;
+        }
+        int sold = campaignRepository.findSoldQuantityById(campaignId)
+                .orElseThrow(() -> new RuntimeException("Campaign not found"));
+        counter = campaignSold.putIfAbsent(campaignId, new AtomicInteger(sold));
+        return counter != null ? counter : campaignSold.get(campaignId);
+    }
+}
@@ -0,0 +1,128 @@
+package com.shopfast.service;
+
+import com.shopfast.exception.OutOfStockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Database-backed stock store using guarded conditional updates.
+ * All stock decrements of an order go out as one JDBC batch and all campaign claims as
+ * a second one, in a short transaction of their own, so the number of round trips does
+ * not depend on the number of items. Each statement must report exactly one updated row.
+ * A zero row count means the guard failed: the batch is rolled back and the order is
+ * rejected. Any other count, such as SUCCESS_NO_INFO from a driver that does not report
+ * counts, cannot prove the guard held and also rolls the reservation back.
+ */
+@Service
+@ConditionalOnProperty(name = "shopfast.stock.store", havingValue = "database")
+@Slf4j
+public class JdbcStockStore implements StockStore {
+
+    private static final String RESERVE_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND stock_quantity >= ?";
+
+    private static final String CLAIM_CAMPAIGN_SQL =
+            "UPDATE campaigns SET sold_quantity = sold_quantity + ? WHERE id = ? AND (max_quantity IS NULL OR sold_quantity + ? <= max_quantity)";
+
+    private static final String RELEASE_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String RELEASE_CAMPAIGN_SQL =
+            "UPDATE campaigns SET sold_quantity = sold_quantity - ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate reservationTransaction;
+
+    public JdbcStockStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public Reservation reserve(List<StockLine> lines) {
+        return reservationTransaction.execute(status -> {
+            List<Object[]> stockArgs = new ArrayList<>(lines.size());
+            List<Object[]> campaignArgs = new ArrayList<>();
+            List<StockLine> campaignLines = new ArrayList<>();
+            for (StockLine line : lines) {
+                stockArgs.add(new Object[]{line.quantity(), line.productId(), line.quantity()});
+                if (line.campaignId() != null) {
+                    campaignArgs.add(new Object[]{line.quantity(), line.campaignId(), line.quantity()});
+                    campaignLines.add(line);
+                }
+            }
+
+            int[] updated = jdbcTemplate.batchUpdate(RESERVE_STOCK_SQL, stockArgs);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    throw new OutOfStockException("Not enough stock for product: " + lines.get(i).productId());
+                }
+                requireOneRow(updated[i], "stock of product " + lines.get(i).productId());
+            }
+
+            List<Long> discountedProducts = new ArrayList<>(campaignLines.size());
+            if (!campaignArgs.isEmpty()) {
+                int[] claimed = jdbcTemplate.batchUpdate(CLAIM_CAMPAIGN_SQL, campaignArgs);
+                for (int i = 0; i < claimed.length; i++) {
+                    // Zero means the quota is used up and the line is sold at full price
+                    if (claimed[i] != 0) {
+                        requireOneRow(claimed[i], "campaign " + campaignLines.get(i).campaignId());
+                        discountedProducts.add(campaignLines.get(i).productId());
+                    }
+                }
+            }
+
+            List<ReservedLine> reserved = new ArrayList<>(lines.size());
+            for (StockLine line : lines) {
+                reserved.add(new ReservedLine(line.productId(), line.quantity(), line.campaignId(),
+                        discountedProducts.contains(line.productId())));
+            }
+            return new Reservation(List.copyOf(reserved));
+        });
+    }
+
+    @Override
+    public void release(Reservation reservation) {
+        reservationTransaction.executeWithoutResult(status -> {
+            List<Object[]> stockArgs = new ArrayList<>();
+            List<Object[]> campaignArgs = new ArrayList<>();
+            for (ReservedLine line : reservation.lines()) {
+                stockArgs.add(new Object[]{line.quantity(), line.productId()});
+                if (line.discounted()) {
+                    campaignArgs.add(new Object[]{line.quantity(), line.campaignId()});
+                }
+            }
+            jdbcTemplate.batchUpdate(RELEASE_STOCK_SQL, stockArgs);
+            if (!campaignArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(RELEASE_CAMPAIGN_SQL, campaignArgs);
+            }
+        });
+        log.debug("Released reservation for {} products", reservation.lines().size());
+    }
+
+    // Rows are already updated by reserve(), nothing is written behind
+    @Override
+    public void commit(Reservation reservation) {
+    }
+
+    @Override
+    public int available(Long productId, int fallback) {
+        return fallback;
+    }
+
+    private static void requireOneRow(int count, String what) {
+        if (count != 1) {
+            throw new IllegalStateException("Unexpected update count " + count + " reserving " + what);
+        }
+    }
+}
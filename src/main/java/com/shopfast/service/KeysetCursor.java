@@ -0,0 +1,68 @@
+package com.shopfast.service;
+
+import com.shopfast.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors: the sort key of the last row of a page, Base64URL encoded.
+ */
+final class KeysetCursor {
+
+    static final int MAX_LIMIT = 500;
+
+    private KeysetCursor() {
+    }
+
+    static String of(long id) {
+        return encode(String.valueOf(id));
+    }
+
+    static String of(LocalDateTime createdAt, long id) {
+        return encode(createdAt + "|" + id);
+    }
+
+    static long id(String cursor) {
+        String value = decode(cursor);
+        try {
+            return Long.parseLong(value.substring(value.indexOf('|') + 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+
+    static LocalDateTime createdAt(String cursor) {
+        String value = decode(cursor);
+        int separator = value.indexOf('|');
+        if (separator < 0) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+        try {
+            return LocalDateTime.parse(value.substring(0, separator));
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+
+    static int limit(int limit) {
+        if (limit < 1) {
+            throw new InvalidRequestException("limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.shopfast.service;
+
+import com.shopfast.config.NotificationProperties;
+import com.shopfast.model.entity.OrderNotification;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+// Local stub: simulates the latency of an email/SMS provider and logs the message
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoggingOrderNotifier implements OrderNotifier {
+
+    private final NotificationProperties properties;
+
+    @Override
+    public void send(OrderNotification notification) {
+        try {
+            Thread.sleep(properties.getStubDelay().toMillis());
+            log.info("Notification sent for order: {} to {}", notification.getOrderId(), notification.getRecipient());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Notification interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.shopfast.service;
+
+import com.shopfast.config.NotificationProperties;
+import com.shopfast.model.entity.Order;
+import com.shopfast.model.entity.OrderNotification;
+import com.shopfast.repository.OrderNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for order notifications.
+ * {@link #enqueue(Order)} stores the notification inside the order transaction; a
+ * scheduled dispatcher takes one batch of due rows per run, sends them in parallel and
+ * retries failures with exponential backoff. A backlog drains at up to batch-size rows
+ * per poll interval. The outbox is drained by a single node.
+ */
+@Service
+@Slf4j
+public class NotificationOutbox {
+
+    private final OrderNotificationRepository notificationRepository;
+
+    private final OrderNotifier orderNotifier;
+
+    private final AsyncTaskExecutor notificationExecutor;
+
+    private final NotificationProperties properties;
+
+    private final Timer lagTimer;
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    public NotificationOutbox(OrderNotificationRepository notificationRepository, OrderNotifier orderNotifier,
+                              @Qualifier("notificationExecutor") AsyncTaskExecutor notificationExecutor,
+                              NotificationProperties properties, MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.orderNotifier = orderNotifier;
+        this.notificationExecutor = notificationExecutor;
+        this.properties = properties;
+        this.lagTimer = Timer.builder("shopfast.notifications.lag")
+                .description("Time from order commit to notification delivery")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("shopfast.notifications", "result", "sent");
+        this.retriedCounter = meterRegistry.counter("shopfast.notifications", "result", "retried");
+        this.failedCounter = meterRegistry.counter("shopfast.notifications", "result", "failed");
+        meterRegistry.gauge("shopfast.notifications.backlog", backlog);
+    }
+
+    // Must run inside the order transaction
+    public void enqueue(Order order) {
+        OrderNotification notification = new OrderNotification();
+        notification.setOrderId(order.getId());
+        notification.setRecipient(order.getUser().getEmail());
+        notificationRepository.save(notification);
+    }
+
+    @Scheduled(fixedDelayString = "${shopfast.notifications.poll-interval-ms:1000}")
+    public void dispatch() {
+        // One batch per run: this shares the scheduling thread with the stock flush and the
+        // index refreshes, which must not wait for a whole backlog to drain
+        List<OrderNotification> due = notificationRepository.findDue(LocalDateTime.now(),
+                PageRequest.of(0, properties.getBatchSize()));
+        if (!due.isEmpty()) {
+            dispatchBatch(due);
+        }
+        backlog.set(notificationRepository.countByStatus(OrderNotification.Status.PENDING));
+    }
+
+    private void dispatchBatch(List<OrderNotification> batch) {
+        ConcurrentLinkedQueue<Long> sent = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+        for (OrderNotification notification : batch) {
+            sends.add(CompletableFuture.runAsync(() -> send(notification, sent), notificationExecutor));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+
+        if (!sent.isEmpty()) {
+            notificationRepository.markSent(sent, LocalDateTime.now());
+        }
+        log.debug("Dispatched {} of {} notifications", sent.size(), batch.size());
+    }
+
+    private void send(OrderNotification notification, ConcurrentLinkedQueue<Long> sent) {
+        try {
+            orderNotifier.send(notification);
+            sent.add(notification.getId());
+            sentCounter.increment();
+            lagTimer.record(Duration.between(notification.getCreatedAt(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            int attempts = notification.getAttempts() + 1;
+            boolean exhausted = attempts >= properties.getMaxAttempts();
+            notificationRepository.markAttemptFailed(notification.getId(),
+                    exhausted ? OrderNotification.Status.FAILED : OrderNotification.Status.PENDING,
+                    attempts, LocalDateTime.now().plus(backoff(attempts)), abbreviate(e.getMessage()));
+            (exhausted ? failedCounter : retriedCounter).increment();
+            log.warn("Notification for order {} failed (attempt {}): {}", notification.getOrderId(), attempts, e.getMessage());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private static String abbreviate(String message) {
+        return message != null && message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
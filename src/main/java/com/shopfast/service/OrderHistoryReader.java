@@ -0,0 +1,120 @@
+package com.shopfast.service;
+
+import com.shopfast.model.dto.CursorPage;
+import com.shopfast.model.dto.OrderItemRow;
+import com.shopfast.model.dto.OrderResponse;
+import com.shopfast.model.dto.OrderSummaryRow;
+import com.shopfast.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Read model of a user's order history.
+ * Responses are built from two projection queries (order headers with the user's email,
+ * then all lines of those orders with their product names), so the statement count does
+ * not depend on the number of orders or items and no entity is ever initialized. Pages and
+ * stream chunks load their lines by order id; the full history joins them on the user, so
+ * no id list grows with it.
+ * An unknown user simply has no orders.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderHistoryReader {
+
+    // Orders whose lines are loaded together while streaming
+    private static final int STREAM_CHUNK = 100;
+
+    private final OrderRepository orderRepository;
+
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersByUserId(Long userId) {
+        return toResponses(orderRepository.findSummariesByUserId(userId),
+                orderIds -> orderRepository.findItemRowsByUserId(userId));
+    }
+
+    // Keyset page, newest first
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> getOrdersByUserId(Long userId, String cursor, int limit) {
+        int size = KeysetCursor.limit(limit);
+        List<OrderSummaryRow> rows = cursor == null
+                ? orderRepository.findSummariesByUserId(userId, Limit.of(size + 1))
+                : orderRepository.findSummariesByUserIdBefore(userId, KeysetCursor.createdAt(cursor),
+                KeysetCursor.id(cursor), Limit.of(size + 1));
+
+        boolean more = rows.size() > size;
+        List<OrderSummaryRow> page = more ? rows.subList(0, size) : rows;
+        OrderSummaryRow last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return new CursorPage<>(toResponses(page), more ? KeysetCursor.of(last.createdAt(), last.id()) : null);
+    }
+
+    // Streams headers as they are read and loads their lines one chunk at a time
+    @Transactional(readOnly = true)
+    public void streamOrdersByUserId(Long userId, Consumer<OrderResponse> consumer) {
+        List<OrderSummaryRow> chunk = new ArrayList<>(STREAM_CHUNK);
+        try (Stream<OrderSummaryRow> rows = orderRepository.streamSummariesByUserId(userId)) {
+            rows.forEach(row -> {
+                chunk.add(row);
+                if (chunk.size() == STREAM_CHUNK) {
+                    toResponses(chunk).forEach(consumer);
+                    chunk.clear();
+                }
+            });
+        }
+        toResponses(chunk).forEach(consumer);
+    }
+
+    private List<OrderResponse> toResponses(List<OrderSummaryRow> summaries) {
+        return toResponses(summaries, orderRepository::findItemRowsByOrderIds);
+    }
+
+    private List<OrderResponse> toResponses(List<OrderSummaryRow> summaries,
+                                            Function<Collection<Long>, List<OrderItemRow>> items) {
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, OrderResponse> responses = new HashMap<>();
+        List<OrderResponse> ordered = new ArrayList<>(summaries.size());
+        for (OrderSummaryRow summary : summaries) {
+            OrderResponse response = new OrderResponse();
+            response.setId(summary.id());
+            response.setUserId(summary.userId());
+            response.setUserEmail(summary.userEmail());
+            response.setTotalAmount(summary.totalAmount());
+            response.setStatus(summary.status());
+            response.setShippingAddress(summary.shippingAddress());
+            response.setCreatedAt(summary.createdAt());
+            response.setItems(new ArrayList<>());
+            responses.put(summary.id(), response);
+            ordered.add(response);
+        }
+
+        for (OrderItemRow row : items.apply(responses.keySet())) {
+            OrderResponse response = responses.get(row.orderId());
+            if (response == null) {
+                // Placed after the headers were read
+                continue;
+            }
+            OrderResponse.OrderItemResponse item = new OrderResponse.OrderItemResponse();
+            item.setId(row.id());
+            item.setProductId(row.productId());
+            item.setProductName(row.productName());
+            item.setQuantity(row.quantity());
+            item.setUnitPrice(row.unitPrice());
+            item.setTotalPrice(row.totalPrice());
+            response.getItems().add(item);
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,106 @@
+package com.shopfast.service;
+
+import com.shopfast.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the order pipeline.
+ * Each stage of order creation has its own timer (shopfast.orders.stage, tagged by stage)
+ * with a percentile histogram, so the stage that eats the latency budget shows up directly.
+ * Rejections are counted by reason and the stock of every campaign product is a gauge.
+ */
+@Component
+public class OrderMetrics {
+
+    public enum Stage {
+        PROCESSING,
+        CAMPAIGN_LOOKUP,
+        STOCK_RESERVATION,
+        USER_LOOKUP,
+        PRODUCT_LOAD,
+        PERSIST,
+        NOTIFICATION,
+        RESPONSE_MAPPING,
+        STOCK_COMMIT
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+
+    private final Counter outOfStock;
+
+    private final Counter campaignSoldOut;
+
+    private final MultiGauge campaignStock;
+
+    private final CampaignIndex campaignIndex;
+
+    private final StockStore stockStore;
+
+    private final ProductRepository productRepository;
+
+    public OrderMetrics(MeterRegistry meterRegistry, CampaignIndex campaignIndex, StockStore stockStore,
+                        ProductRepository productRepository) {
+        this.campaignIndex = campaignIndex;
+        this.stockStore = stockStore;
+        this.productRepository = productRepository;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("shopfast.orders.stage")
+                    .description("Time spent in one stage of order creation")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        this.outOfStock = meterRegistry.counter("shopfast.orders.rejected", "reason", "out_of_stock");
+        this.campaignSoldOut = meterRegistry.counter("shopfast.orders.rejected", "reason", "campaign_sold_out");
+        this.campaignStock = MultiGauge.builder("shopfast.stock.available")
+                .description("Available stock of products with a current or upcoming campaign")
+                .register(meterRegistry);
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        return stageTimers.get(stage).record(work);
+    }
+
+    public void time(Stage stage, Runnable work) {
+        stageTimers.get(stage).record(work);
+    }
+
+    public void outOfStock() {
+        outOfStock.increment();
+    }
+
+    public void campaignSoldOut() {
+        campaignSoldOut.increment();
+    }
+
+    // Follows the campaign index, so products whose campaigns ended drop out
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${shopfast.campaign-index.refresh-interval-ms:60000}")
+    public void registerStockGauges() {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        for (long productId : campaignIndex.productIds()) {
+            rows.add(MultiGauge.Row.of(Tags.of("product", String.valueOf(productId)), () -> availableStock(productId)));
+        }
+        campaignStock.register(rows, true);
+    }
+
+    private int availableStock(long productId) {
+        int available = stockStore.available(productId, -1);
+        return available >= 0 ? available : productRepository.findStockQuantityById(productId).orElse(0);
+    }
+}
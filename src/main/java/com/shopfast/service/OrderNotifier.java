@@ -0,0 +1,12 @@
+package com.shopfast.service;
+
+import com.shopfast.model.entity.OrderNotification;
+
+/**
+ * Delivers an order notification (email/SMS). Throwing marks the attempt as failed
+ * and schedules a retry.
+ */
+public interface OrderNotifier {
+
+    void send(OrderNotification notification);
+}
@@ -1,26 +1,36 @@
 package com.shopfast.service;
 
+import com.shopfast.config.CampaignProperties;
+import com.shopfast.config.OrderProperties;
+import com.shopfast.event.ProductStockChangedEvent;
+import com.shopfast.exception.CampaignSoldOutException;
 import com.shopfast.exception.OutOfStockException;
+import com.shopfast.model.Money;
 import com.shopfast.model.dto.OrderRequest;
 import com.shopfast.model.dto.OrderResponse;
-import com.shopfast.model.entity.Campaign;
 import com.shopfast.model.entity.Order;
 import com.shopfast.model.entity.OrderItem;
 import com.shopfast.model.entity.Product;
 import com.shopfast.model.entity.User;
-import com.shopfast.repository.CampaignRepository;
 import com.shopfast.repository.OrderRepository;
 import com.shopfast.repository.ProductRepository;
 import com.shopfast.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,25 +43,231 @@ public class OrderService {
 
     private final ProductRepository productRepository;
 
-    private final CampaignRepository campaignRepository;
+    private final CampaignIndex campaignIndex;
+
+    private final StockStore stockStore;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final NotificationOutbox notificationOutbox;
+
+    private final CampaignProperties campaignProperties;
+
+    private final OrderProperties orderProperties;
+
+    private final OrderMetrics orderMetrics;
+
+    private final SalesAnalytics salesAnalytics;
 
     /**
-     * VERSION 1 (BAD) - This version will suffer from performance issues
-     * Problems:
-     * 1. N+1 Query Problem
-     * 2. Race Condition (Stock control)
-     * 3. Long running transaction
-     * 4. No caching
-     * 5. Synchronous processing
+     * Stock and campaign quota are reserved in the {@link StockStore} before the transaction
+     * starts, so the product rows are no longer read-modify-written (or locked) per order.
+     * Products are loaded with one query whatever the item count, campaigns come from the
+     * in-memory {@link CampaignIndex}, and the notification is written to the
+     * {@link NotificationOutbox} and sent after commit.
      */
-
-    @Transactional
     public OrderResponse createOrder(OrderRequest request) {
         log.info("Creating order for user: {}", request.getUserId());
 
-        // Problem 1: We are fetching the user from the database every time
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        checkItems(request);
+        OrderOutcome outcome = placeOrders(List.of(prepare(request))).get(0);
+        if (outcome.error() != null) {
+            throw outcome.error();
+        }
+        return outcome.response();
+    }
+
+    /**
+     * Places a batch of orders with one transaction, so their rows go out in JDBC batches.
+     * Each order is placed or fails on its own; outcomes are returned in input order.
+     */
+    public List<OrderOutcome> createOrders(List<OrderRequest> requests) {
+        log.info("Creating batch of {} orders", requests.size());
+
+        // The per-item checks of different orders do not depend on each other
+        try (ExecutorService checks = Executors.newVirtualThreadPerTaskExecutor()) {
+            requests.forEach(request -> checks.execute(() -> checkItems(request)));
+        }
+
+        OrderOutcome[] outcomes = new OrderOutcome[requests.size()];
+        List<PreparedOrder> prepared = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                prepared.add(prepare(requests.get(i)));
+                positions.add(i);
+            } catch (RuntimeException e) {
+                outcomes[i] = OrderOutcome.failed(e);
+            }
+        }
+
+        if (!prepared.isEmpty()) {
+            List<OrderOutcome> placed;
+            try {
+                placed = placeOrders(prepared);
+            } catch (RuntimeException e) {
+                // The transaction failed, so none of the prepared orders was placed
+                placed = prepared.stream().map(order -> OrderOutcome.failed(e)).toList();
+            }
+            for (int i = 0; i < placed.size(); i++) {
+                outcomes[positions.get(i)] = placed.get(i);
+            }
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    // Per-item checks that do not need the database transaction
+    public void checkItems(OrderRequest request) {
+        orderMetrics.time(OrderMetrics.Stage.PROCESSING, () -> {
+            for (OrderRequest.OrderItemRequest ignored : request.getItems()) {
+                // Problem 1: Slow operations (simulation)
+                simulateSlowProcess();
+            }
+        });
+    }
+
+    /**
+     * Resolves campaigns and reserves stock for one order.
+     *
+     * @throws com.shopfast.exception.OutOfStockException if any item lacks stock
+     * @throws CampaignSoldOutException if a campaign quota is used up and the policy is REJECT
+     */
+    public PreparedOrder prepare(OrderRequest request) {
+        return reserve(price(request));
+    }
+
+    // Looks up the active campaign of each product; nothing is reserved yet
+    public PricedOrder price(OrderRequest request) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderRequest.OrderItemRequest item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        long now = System.currentTimeMillis();
+        Map<Long, CampaignIndex.Entry> campaigns = new HashMap<>();
+        List<StockStore.StockLine> lines = new ArrayList<>(quantities.size());
+        orderMetrics.time(OrderMetrics.Stage.CAMPAIGN_LOOKUP, () -> quantities.forEach((productId, quantity) -> {
+            CampaignIndex.Entry campaign = campaignIndex.activeCampaign(productId, now);
+            if (campaign != null) {
+                campaigns.put(productId, campaign);
+            }
+            lines.add(new StockStore.StockLine(productId, quantity,
+                    campaign != null ? campaign.id() : null,
+                    campaign != null ? campaign.maxQuantity() : null));
+        }));
+        return new PricedOrder(request, campaigns, lines);
+    }
+
+    /**
+     * Reserves the stock and campaign quota of a priced order.
+     *
+     * @throws com.shopfast.exception.OutOfStockException if any item lacks stock
+     * @throws CampaignSoldOutException if a campaign quota is used up and the policy is REJECT
+     */
+    public PreparedOrder reserve(PricedOrder priced) {
+        StockStore.Reservation reservation;
+        try {
+            reservation = orderMetrics.time(OrderMetrics.Stage.STOCK_RESERVATION, () -> stockStore.reserve(priced.lines()));
+        } catch (OutOfStockException e) {
+            orderMetrics.outOfStock();
+            throw e;
+        }
+        for (StockStore.ReservedLine line : reservation.lines()) {
+            if (line.campaignId() != null && !line.discounted()) {
+                campaignIndex.markSoldOut(line.campaignId(), line.productId());
+                if (campaignProperties.getSoldOutPolicy() == CampaignProperties.SoldOutPolicy.REJECT) {
+                    stockStore.release(reservation);
+                    orderMetrics.campaignSoldOut();
+                    throw new CampaignSoldOutException("Campaign sold out for product: " + line.productId());
+                }
+            }
+        }
+        return new PreparedOrder(priced.request(), priced.campaigns(), reservation);
+    }
+
+    /**
+     * Persists prepared orders in a single transaction and settles their reservations.
+     * Orders referring to a missing user or product fail on their own; if the transaction
+     * itself fails, every order fails. Outcomes are returned in input order.
+     */
+    public List<OrderOutcome> placeOrders(List<PreparedOrder> prepared) {
+        List<OrderOutcome> outcomes;
+        List<Order> placed = new ArrayList<>(prepared.size());
+        try {
+            outcomes = transactionTemplate.execute(status -> persist(prepared, placed));
+        } catch (RuntimeException | Error e) {
+            prepared.forEach(order -> stockStore.release(order.reservation()));
+            throw e;
+        }
+
+        Set<Long> changedProducts = new HashSet<>();
+        for (int i = 0; i < prepared.size(); i++) {
+            StockStore.Reservation reservation = prepared.get(i).reservation();
+            if (outcomes.get(i).error() == null) {
+                orderMetrics.time(OrderMetrics.Stage.STOCK_COMMIT, () -> stockStore.commit(reservation));
+                changedProducts.addAll(reservation.productIds());
+            } else {
+                stockStore.release(reservation);
+            }
+        }
+        if (!changedProducts.isEmpty()) {
+            eventPublisher.publishEvent(new ProductStockChangedEvent(changedProducts));
+        }
+        salesAnalytics.record(placed);
+        return outcomes;
+    }
+
+    // Saved orders are also added to placed, for the work that has to wait for the commit
+    private List<OrderOutcome> persist(List<PreparedOrder> prepared, List<Order> placed) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (PreparedOrder order : prepared) {
+            userIds.add(order.request().getUserId());
+            productIds.addAll(order.reservation().productIds());
+        }
+
+        Map<Long, User> users = new HashMap<>();
+        for (User user : orderMetrics.time(OrderMetrics.Stage.USER_LOOKUP, () -> userRepository.findAllById(userIds))) {
+            users.put(user.getId(), user);
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : orderMetrics.time(OrderMetrics.Stage.PRODUCT_LOAD, () -> productRepository.findAllById(productIds))) {
+            products.put(product.getId(), product);
+        }
+
+        List<OrderOutcome> outcomes = new ArrayList<>(prepared.size());
+        List<Order> orders = new ArrayList<>(prepared.size());
+        for (PreparedOrder order : prepared) {
+            try {
+                orders.add(buildOrder(order, users, products));
+                outcomes.add(null);
+            } catch (RuntimeException e) {
+                outcomes.add(OrderOutcome.failed(e));
+            }
+        }
+
+        List<Order> savedOrders = orderMetrics.time(OrderMetrics.Stage.PERSIST, () -> orderRepository.saveAll(orders));
+        for (int i = 0, saved = 0; i < outcomes.size(); i++) {
+            if (outcomes.get(i) == null) {
+                Order savedOrder = savedOrders.get(saved++);
+                placed.add(savedOrder);
+                orderMetrics.time(OrderMetrics.Stage.NOTIFICATION, () -> notificationOutbox.enqueue(savedOrder));
+                log.info("Order created successfully: {}", savedOrder.getId());
+                OrderResponse response = orderMetrics.time(OrderMetrics.Stage.RESPONSE_MAPPING, () -> convertToResponse(savedOrder));
+                outcomes.set(i, OrderOutcome.placed(response));
+            }
+        }
+        return outcomes;
+    }
+
+    private Order buildOrder(PreparedOrder prepared, Map<Long, User> users, Map<Long, Product> products) {
+        OrderRequest request = prepared.request();
+        User user = users.get(request.getUserId());
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
 
         Order order = new Order();
         order.setUser(user);
@@ -59,81 +275,51 @@ public class OrderService {
         order.setStatus(Order.OrderStatus.PENDING);
 
         List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        long totalMinor = 0;
 
-        // Problem 2: A separate database query is executed for each item (N+1 Problem)
         for (OrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-
-            // Problem 3: Race condition - Stock control is not atomic
-            if (product.getStockQuantity() < itemRequest.getQuantity()) {
-                throw new OutOfStockException("Not enough stock for product: " + product.getName());
-            }
-
-            // Campaign check (querying the database every time)
-            Campaign activeCampaign = campaignRepository
-                    .findActiveCampaignByProduct(product, LocalDateTime.now())
-                    .orElse(null);
-
-            BigDecimal unitPrice = product.getPrice();
-            if (activeCampaign != null && activeCampaign.isCurrentlyActive()) {
-                unitPrice = activeCampaign.getDiscountedPrice();
+            Product product = products.get(itemRequest.getProductId());
+            if (product == null) {
+                throw new RuntimeException("Product not found");
             }
 
-            // Problem 4: Stock update is vulnerable to race conditions
-            product.setStockQuantity(product.getStockQuantity() - itemRequest.getQuantity());
-            productRepository.save(product); // Separate save operation for each item
+            // Discounted price only for units that got a campaign quota claim
+            // Fixed-point from here on, BigDecimal only for the entity columns
+            CampaignIndex.Entry campaign = prepared.reservation().isDiscounted(product.getId())
+                    ? prepared.campaigns().get(product.getId())
+                    : null;
+            long unitMinor = campaign != null ? campaign.discountedPriceMinor() : product.getPriceMinor();
+            long lineMinor = Money.lineTotal(unitMinor, itemRequest.getQuantity());
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
+            orderItem.setCampaignId(campaign != null ? campaign.id() : null);
             orderItem.setQuantity(itemRequest.getQuantity());
-            orderItem.setUnitPrice(unitPrice);
-            orderItem.setTotalPrice(unitPrice.multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
+            orderItem.setUnitPrice(Money.toAmount(unitMinor));
+            orderItem.setTotalPrice(Money.toAmount(lineMinor));
 
             orderItems.add(orderItem);
-            totalAmount = totalAmount.add(orderItem.getTotalPrice());
-
-            // Problem 5: Slow operations (simulation)
-            simulateSlowProcess();
+            totalMinor = Math.addExact(totalMinor, lineMinor);
         }
 
         order.setOrderItems(orderItems);
-        order.setTotalAmount(totalAmount);
-
-        // Problem 6: Large transaction – long lock duration
-        Order savedOrder = orderRepository.save(order);
-
-        // Problem 7: Synchronous notification (slow)
-        sendOrderNotification(savedOrder);
-
-        log.info("Order created successfully: {}", savedOrder.getId());
-        return convertToResponse(savedOrder);
+        order.setTotalAmount(Money.toAmount(totalMinor));
+        return order;
     }
 
     // Slow operation simulation
     private void simulateSlowProcess() {
         try {
             // Database query and external service call simulation
-            Thread.sleep(100); // 100ms delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
-    // Sending synchronous notifications (slow)
-    private void sendOrderNotification(Order order) {
-        try {
-            // Email/SMS sending simulation
-            Thread.sleep(200); // 200ms delay
-            log.info("Notification sent for order: {}", order.getId());
+            Thread.sleep(orderProperties.getItemProcessingDelay()); // 100ms delay by default
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
     }
 
-    private OrderResponse convertToResponse(Order order) {
+    // Package-private for the JMH mapping benchmark
+    OrderResponse convertToResponse(Order order) {
         OrderResponse response = new OrderResponse();
         response.setId(order.getId());
         response.setUserId(order.getUser().getId());
@@ -159,11 +345,22 @@ public class OrderService {
         return response;
     }
 
-    public List<OrderResponse> getOrdersByUserId(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public record PricedOrder(OrderRequest request, Map<Long, CampaignIndex.Entry> campaigns,
+                              List<StockStore.StockLine> lines) {
+    }
 
-        List<Order> orders = orderRepository.findByUserOrderByCreatedAtDesc(user);
-        return orders.stream().map(this::convertToResponse).toList();
+    public record PreparedOrder(OrderRequest request, Map<Long, CampaignIndex.Entry> campaigns,
+                                StockStore.Reservation reservation) {
+    }
+
+    public record OrderOutcome(OrderResponse response, RuntimeException error) {
+
+        static OrderOutcome placed(OrderResponse response) {
+            return new OrderOutcome(response, null);
+        }
+
+        static OrderOutcome failed(RuntimeException error) {
+            return new OrderOutcome(null, error);
+        }
     }
 }
@@ -0,0 +1,377 @@
+package com.shopfast.service;
+
+import com.shopfast.event.ProductChangedEvent;
+import com.shopfast.model.dto.ProductTextRow;
+import com.shopfast.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory inverted index over product name, category and description.
+ * Terms are kept in a sorted map, so a prefix is a range of terms. Each term maps to a
+ * posting list in an int[] sorted by product id; an entry is id << 3 | fields, where the
+ * field flags are also the weights: name 4, category 2, description 1. A changed product
+ * is re-indexed on its own by swapping the posting arrays of the terms it left or gained.
+ * A full build reads the catalog outside the write lock and swaps the maps in; products
+ * that change meanwhile are re-indexed again on the result. Queries never read the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    public static final int MAX_RESULTS = 100;
+
+    private static final int NAME = 4;
+
+    private static final int CATEGORY = 2;
+
+    private static final int DESCRIPTION = 1;
+
+    private static final int FIELD_BITS = 3;
+
+    // Product ids share an int with the field flags
+    private static final long MAX_ID = (1L << (Integer.SIZE - 1 - FIELD_BITS)) - 1;
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final int MAX_QUERY_WORDS = 8;
+
+    private static final String[] NO_TERMS = new String[0];
+
+    private final ProductRepository productRepository;
+
+    private final CatalogIndex catalogIndex;
+
+    private volatile ConcurrentSkipListMap<String, int[]> postings = new ConcurrentSkipListMap<>();
+
+    // Terms each product is indexed under, so they can be dropped when it changes
+    private volatile Map<Long, String[]> termsByProduct = new ConcurrentHashMap<>();
+
+    // Serializes changes to the maps; queries never take it
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    // Products changed while a build reads the catalog, re-indexed once it is swapped in; null otherwise
+    private Set<Long> changedDuringBuild;
+
+    /**
+     * Ids of the products matching every query word, best first. A word matches every term
+     * it is a prefix of, and a whole-term match counts double. Inactive products are left
+     * out; in-stock products come before sold out ones, then higher text scores, then lower ids.
+     */
+    public long[] search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+        long[] hits = null;
+        for (String word : words.subList(0, Math.min(words.size(), MAX_QUERY_WORDS))) {
+            long[] matches = matches(word);
+            hits = hits == null ? matches : intersect(hits, matches);
+            if (hits.length == 0) {
+                return hits;
+            }
+        }
+
+        // Rank key: in-stock flag, then score, then the inverted id.
+        // The best keys are kept in a min-heap of the requested size.
+        long[] heap = new long[Math.min(limit, hits.length)];
+        int size = 0;
+        for (long hit : hits) {
+            long id = hit >>> 32;
+            if (!catalogIndex.isActive(id)) {
+                continue;
+            }
+            long tier = catalogIndex.isInStock(id) ? 1 : 0;
+            long key = tier << 60 | (hit & 0xFFFFFFFFL) << 32 | (MAX_ID - id);
+            if (size < heap.length) {
+                siftUp(heap, size++, key);
+            } else if (key > heap[0]) {
+                siftDown(heap, size, key);
+            }
+        }
+        long[] ids = new long[size];
+        while (size > 0) {
+            long best = heap[0];
+            siftDown(heap, --size, heap[size]);
+            ids[size] = MAX_ID - (best & 0xFFFFFFFFL);
+        }
+        return ids;
+    }
+
+    // Loads the whole catalog once; later changes arrive one product at a time
+    @PostConstruct
+    public void build() {
+        buildLock.lock();
+        try {
+            writeLock.lock();
+            try {
+                changedDuringBuild = new HashSet<>();
+            } finally {
+                writeLock.unlock();
+            }
+            Map<String, PostingBuilder> building = new HashMap<>();
+            Map<Long, String[]> terms = new ConcurrentHashMap<>();
+            for (ProductTextRow row : productRepository.findTextRows()) {
+                Map<String, Integer> fields = fields(row);
+                // Rows come in id order, so every posting list is sorted
+                fields.forEach((term, flags) -> building.computeIfAbsent(term, key -> new PostingBuilder())
+                        .add(posting(row.id(), flags)));
+                terms.put(row.id(), fields.keySet().toArray(NO_TERMS));
+            }
+            ConcurrentSkipListMap<String, int[]> built = new ConcurrentSkipListMap<>();
+            building.forEach((term, builder) -> built.put(term, builder.toArray()));
+
+            Set<Long> changed;
+            writeLock.lock();
+            try {
+                postings = built;
+                termsByProduct = terms;
+                changed = changedDuringBuild;
+                changedDuringBuild = null;
+            } finally {
+                writeLock.unlock();
+            }
+            changed.forEach(this::update);
+            log.debug("Search index built with {} terms for {} products", built.size(), terms.size());
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        update(event.productId());
+    }
+
+    void reindex(long productId, Map<String, Integer> fields) {
+        writeLock.lock();
+        try {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(productId);
+            }
+            for (String term : termsByProduct.getOrDefault(productId, NO_TERMS)) {
+                if (!fields.containsKey(term)) {
+                    postings.computeIfPresent(term, (key, list) -> {
+                        int[] remaining = remove(list, productId);
+                        return remaining.length > 0 ? remaining : null;
+                    });
+                }
+            }
+            fields.forEach((term, flags) -> postings.merge(term, new int[]{posting(productId, flags)},
+                    (list, added) -> upsert(list, added[0])));
+
+            if (fields.isEmpty()) {
+                termsByProduct.remove(productId);
+            } else {
+                termsByProduct.put(productId, fields.keySet().toArray(NO_TERMS));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Reads the product outside the lock, then re-indexes it
+    private void update(Long productId) {
+        reindex(productId, productRepository.findTextRowById(productId)
+                .map(ProductSearchIndex::fields)
+                .orElse(Map.of()));
+    }
+
+    // Lower-cased runs of letters and digits, at least MIN_TERM_LENGTH long
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean letter = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) {
+                    tokens.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Terms of a product with the flags of the fields they occur in
+    static Map<String, Integer> fields(ProductTextRow row) {
+        Map<String, Integer> fields = new HashMap<>();
+        tokenize(row.name()).forEach(term -> fields.merge(term, NAME, (a, b) -> a | b));
+        tokenize(row.category()).forEach(term -> fields.merge(term, CATEGORY, (a, b) -> a | b));
+        tokenize(row.description()).forEach(term -> fields.merge(term, DESCRIPTION, (a, b) -> a | b));
+        return fields;
+    }
+
+    // Products with a term starting with the word: id << 32 | best score, sorted by id
+    private long[] matches(String word) {
+        List<Map.Entry<String, int[]>> terms = new ArrayList<>(postings.subMap(word, word + Character.MAX_VALUE).entrySet());
+        int total = 0;
+        for (Map.Entry<String, int[]> term : terms) {
+            total += term.getValue().length;
+        }
+
+        long[] hits = new long[total];
+        int count = 0;
+        for (Map.Entry<String, int[]> term : terms) {
+            int weight = term.getKey().length() == word.length() ? 2 : 1;
+            for (int posting : term.getValue()) {
+                hits[count++] = (long) (posting >>> FIELD_BITS) << 32 | (posting & 7) * weight;
+            }
+        }
+        if (terms.size() == 1) {
+            // A single posting list is already sorted and has one entry per product
+            return hits;
+        }
+        Arrays.sort(hits);
+
+        // The last entry of each product run has its best score
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (i + 1 == count || hits[i + 1] >>> 32 != hits[i] >>> 32) {
+                hits[size++] = hits[i];
+            }
+        }
+        return Arrays.copyOf(hits, size);
+    }
+
+    // Products in both sorted hit lists, with their scores added up
+    private static long[] intersect(long[] left, long[] right) {
+        long[] both = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            long leftId = left[i] >>> 32;
+            long rightId = right[j] >>> 32;
+            if (leftId < rightId) {
+                i++;
+            } else if (leftId > rightId) {
+                j++;
+            } else {
+                both[size++] = leftId << 32 | ((left[i++] & 0xFFFFFFFFL) + (right[j++] & 0xFFFFFFFFL));
+            }
+        }
+        return Arrays.copyOf(both, size);
+    }
+
+    private static void siftUp(long[] heap, int at, long key) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[at] = heap[parent];
+            at = parent;
+        }
+        heap[at] = key;
+    }
+
+    // Replaces the smallest key of a heap of the given size
+    private static void siftDown(long[] heap, int size, long key) {
+        int at = 0;
+        for (int child = 1; child < size; child = at * 2 + 1) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (key <= heap[child]) {
+                break;
+            }
+            heap[at] = heap[child];
+            at = child;
+        }
+        if (size > 0) {
+            heap[at] = key;
+        }
+    }
+
+    private static int posting(long productId, int flags) {
+        if (productId > MAX_ID) {
+            throw new IllegalStateException("Product id too large for the search index: " + productId);
+        }
+        return (int) productId << FIELD_BITS | flags;
+    }
+
+    // Position of the product in a posting list, or -(insertion point) - 1
+    private static int indexOf(int[] list, long productId) {
+        int low = 0;
+        int high = list.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = list[mid] >>> FIELD_BITS;
+            if (id < productId) {
+                low = mid + 1;
+            } else if (id > productId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    private static int[] upsert(int[] list, int posting) {
+        int index = indexOf(list, posting >>> FIELD_BITS);
+        if (index >= 0) {
+            int[] updated = list.clone();
+            updated[index] = posting;
+            return updated;
+        }
+        int at = -index - 1;
+        int[] inserted = new int[list.length + 1];
+        System.arraycopy(list, 0, inserted, 0, at);
+        inserted[at] = posting;
+        System.arraycopy(list, at, inserted, at + 1, list.length - at);
+        return inserted;
+    }
+
+    private static int[] remove(int[] list, long productId) {
+        int index = indexOf(list, productId);
+        if (index < 0) {
+            return list;
+        }
+        int[] remaining = new int[list.length - 1];
+        System.arraycopy(list, 0, remaining, 0, index);
+        System.arraycopy(list, index + 1, remaining, index, list.length - index - 1);
+        return remaining;
+    }
+
+    private static final class PostingBuilder {
+
+        private int[] values = new int[4];
+
+        private int size;
+
+        void add(int posting) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = posting;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
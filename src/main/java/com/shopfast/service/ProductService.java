@@ -1,17 +1,33 @@
 package com.shopfast.service;
 
+import com.shopfast.config.CacheConfig;
+import com.shopfast.event.CampaignChangedEvent;
+import com.shopfast.event.CampaignSoldOutEvent;
+import com.shopfast.event.ProductChangedEvent;
+import com.shopfast.event.ProductStockChangedEvent;
+import com.shopfast.model.dto.CursorPage;
 import com.shopfast.model.dto.ProductResponse;
-import com.shopfast.model.entity.Campaign;
 import com.shopfast.model.entity.Product;
-import com.shopfast.repository.CampaignRepository;
 import com.shopfast.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,51 +36,179 @@ public class ProductService {
 
     private final ProductRepository productRepository;
 
-    private final CampaignRepository campaignRepository;
+    private final CampaignIndex campaignIndex;
 
+    private final CatalogIndex catalogIndex;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final StockStore stockStore;
+
+    private final CacheManager cacheManager;
+
+    private final EntityManager entityManager;
+
+    private final SingleFlight<Long, ProductResponse> productLoads;
+
+    // Full active catalog in id order; served to clients through CatalogSnapshots
+    @Transactional(readOnly = true)
     public List<ProductResponse> getAllProducts() {
-        List<Product> products = productRepository.findByIsActiveTrue();
+        List<Product> products = productRepository.findByIsActiveTrueOrderByIdAsc();
         return products.stream().map(this::convertToResponse).toList();
     }
 
-    public List<ProductResponse> getProductsByCategory(String category) {
-        List<Product> products = productRepository.findByCategoryAndIsActiveTrue(category);
-        return products.stream().map(this::convertToResponse).toList();
+    // Cache misses for the same id share one load, which holds a connection only while findById runs
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public ProductResponse getProductById(Long id) {
+        return productLoads.load(id, this::loadProduct);
     }
 
-    public ProductResponse getProductById(Long id) {
+    // Keyset pages in id order; ids come from the in-memory CatalogIndex, rows from the product cache
+
+    public CursorPage<ProductResponse> getActiveProducts(String cursor, int limit) {
+        int size = KeysetCursor.limit(limit);
+        return page(catalogIndex.active(after(cursor), size + 1), size);
+    }
+
+    public CursorPage<ProductResponse> getProductsByCategory(String category, String cursor, int limit) {
+        int size = KeysetCursor.limit(limit);
+        return page(catalogIndex.activeInCategory(category, after(cursor), size + 1), size);
+    }
+
+    public CursorPage<ProductResponse> getInStockProducts(String cursor, int limit) {
+        int size = KeysetCursor.limit(limit);
+        return page(catalogIndex.inStock(after(cursor), size + 1), size);
+    }
+
+    // Ranked by the in-memory ProductSearchIndex, rows from the product cache
+    public List<ProductResponse> search(String query, int limit) {
+        long[] ids = productSearchIndex.search(query, Math.max(1, Math.min(limit, ProductSearchIndex.MAX_RESULTS)));
+        return getProductsByIds(ids, ids.length);
+    }
+
+    // Streaming variants: each row is handed to the consumer as it is read, then detached
+
+    @Transactional(readOnly = true)
+    public void streamActiveProducts(Consumer<ProductResponse> consumer) {
+        try (Stream<Product> products = productRepository.streamActive()) {
+            stream(products, consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamProductsByCategory(String category, Consumer<ProductResponse> consumer) {
+        try (Stream<Product> products = productRepository.streamActiveByCategory(category)) {
+            stream(products, consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamInStockProducts(Consumer<ProductResponse> consumer) {
+        try (Stream<Product> products = productRepository.streamInStock()) {
+            stream(products, consumer);
+        }
+    }
+
+    @EventListener
+    public void onStockChanged(ProductStockChangedEvent event) {
+        event.productIds().forEach(this::evict);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.productId());
+    }
+
+    // Cached responses carry the campaign name and discounted price
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        if (event.productId() != null) {
+            evict(event.productId());
+        }
+    }
+
+    @EventListener
+    public void onCampaignSoldOut(CampaignSoldOutEvent event) {
+        evict(event.productId());
+    }
+
+    private void evict(Long id) {
+        cacheManager.getCache(CacheConfig.PRODUCTS).evict(id);
+        productLoads.forget(id);
+    }
+
+    private ProductResponse loadProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         return convertToResponse(product);
     }
 
-    public List<ProductResponse> getInStockProducts() {
-        List<Product> products = productRepository.findInStockProducts();
-        return products.stream().map(this::convertToResponse).toList();
+    private void stream(Stream<Product> products, Consumer<ProductResponse> consumer) {
+        products.forEach(product -> {
+            consumer.accept(convertToResponse(product));
+            entityManager.detach(product);
+        });
+    }
+
+    // The index returns one id more than the page size to tell whether another page follows
+    private CursorPage<ProductResponse> page(long[] ids, int size) {
+        boolean more = ids.length > size;
+        return new CursorPage<>(getProductsByIds(ids, more ? size : ids.length),
+                more ? KeysetCursor.of(ids[size - 1]) : null);
+    }
+
+    // The first count products in the given order; only cache misses are loaded, with one query
+    private List<ProductResponse> getProductsByIds(long[] ids, int count) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        ProductResponse[] products = new ProductResponse[count];
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products[i] = cache.get(ids[i], ProductResponse.class);
+            if (products[i] == null) {
+                missing.add(ids[i]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, ProductResponse> loaded = new HashMap<>();
+            for (Product product : productRepository.findAllById(missing)) {
+                ProductResponse response = convertToResponse(product);
+                cache.put(product.getId(), response);
+                loaded.put(product.getId(), response);
+            }
+            for (int i = 0; i < count; i++) {
+                if (products[i] == null) {
+                    products[i] = loaded.get(ids[i]);
+                }
+            }
+        }
+        return Arrays.stream(products).filter(Objects::nonNull).toList();
+    }
+
+    private static long after(String cursor) {
+        return cursor != null ? KeysetCursor.id(cursor) : 0L;
     }
 
-    private ProductResponse convertToResponse(Product product) {
+    // Package-private for the JMH mapping benchmark
+    ProductResponse convertToResponse(Product product) {
         ProductResponse response = new ProductResponse();
         response.setId(product.getId());
         response.setName(product.getName());
         response.setDescription(product.getDescription());
         response.setPrice(product.getPrice());
-        response.setStockQuantity(product.getStockQuantity());
+        response.setStockQuantity(stockStore.available(product.getId(), product.getStockQuantity()));
         response.setCategory(product.getCategory());
         response.setImageUrl(product.getImageUrl());
         response.setIsActive(product.getIsActive());
         response.setCreatedAt(product.getCreatedAt());
 
-        // Active campaign check
-        Optional<Campaign> activeCampaign = campaignRepository
-                .findActiveCampaignByProduct(product, LocalDateTime.now());
+        // Active campaign check (served from the in-memory index)
+        CampaignIndex.Entry campaign = campaignIndex.activeCampaign(product.getId());
 
-        if (activeCampaign.isPresent() && activeCampaign.get().isCurrentlyActive()) {
-            Campaign campaign = activeCampaign.get();
+        if (campaign != null) {
             response.setHasActiveCampaign(true);
-            response.setCampaignName(campaign.getName());
-            response.setDiscountPercentage(campaign.getDiscountPercentage());
-            response.setDiscountedPrice(campaign.getDiscountedPrice());
+            response.setCampaignName(campaign.name());
+            response.setDiscountPercentage(campaign.discountPercentage());
+            response.setDiscountedPrice(campaign.discountedPrice());
         } else {
             response.setHasActiveCampaign(false);
             response.setDiscountedPrice(product.getPrice());
@@ -0,0 +1,166 @@
+package com.shopfast.service;
+
+import com.shopfast.exception.OutOfStockException;
+import com.shopfast.repository.CampaignRepository;
+import com.shopfast.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis-backed stock store shared by all application nodes.
+ * Stock check-and-decrement and campaign quota claims for a whole order run in a
+ * single Lua script, so they are atomic on the server without any database lock.
+ * Keys missing from Redis are seeded from the database with SETNX.
+ */
+@Service
+@ConditionalOnProperty(name = "shopfast.stock.store", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisStockStore implements StockStore {
+
+    private static final String STOCK_KEY = "shopfast:stock:";
+
+    private static final String CAMPAIGN_SOLD_KEY = "shopfast:campaign-sold:";
+
+    // No campaign for this line
+    private static final long NO_CAMPAIGN = -2;
+
+    // Campaign without a quota
+    private static final long UNLIMITED = -1;
+
+    /*
+     * KEYS[1..n] stock keys, KEYS[n+1..2n] campaign sold keys (the stock key repeated when
+     * the line has no campaign). ARGV[1] = n, ARGV[2i] = quantity, ARGV[2i+1] = campaign quota.
+     * Returns {1, discounted flags...} on success, {0, line} when out of stock and
+     * {-1, key index} when a key has not been seeded yet.
+     */
+    private static final RedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+            local n = tonumber(ARGV[1])
+            for i = 1, n do
+              local stock = redis.call('GET', KEYS[i])
+              if not stock then return {-1, i} end
+              if tonumber(stock) < tonumber(ARGV[i * 2]) then return {0, i} end
+              if tonumber(ARGV[i * 2 + 1]) ~= -2 and not redis.call('GET', KEYS[n + i]) then return {-1, n + i} end
+            end
+            local result = {1}
+            for i = 1, n do
+              local quantity = tonumber(ARGV[i * 2])
+              local quota = tonumber(ARGV[i * 2 + 1])
+              redis.call('DECRBY', KEYS[i], quantity)
+              local discounted = 0
+              if quota ~= -2 and (quota == -1 or tonumber(redis.call('GET', KEYS[n + i])) + quantity <= quota) then
+                redis.call('INCRBY', KEYS[n + i], quantity)
+                discounted = 1
+              end
+              result[i + 1] = discounted
+            end
+            return result
+            """, List.class);
+
+    // Same key layout as RESERVE_SCRIPT; ARGV[2i+1] is 1 for lines that claimed campaign units
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            local n = tonumber(ARGV[1])
+            for i = 1, n do
+              redis.call('INCRBY', KEYS[i], ARGV[i * 2])
+              if ARGV[i * 2 + 1] == '1' then redis.call('DECRBY', KEYS[n + i], ARGV[i * 2]) end
+            end
+            return n
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ProductRepository productRepository;
+
+    private final CampaignRepository campaignRepository;
+
+    private final StockReconciler stockReconciler;
+
+    @Override
+    public Reservation reserve(List<StockLine> lines) {
+        List<String> keys = new ArrayList<>(lines.size() * 2);
+        List<String> args = new ArrayList<>(lines.size() * 2 + 1);
+        lines.forEach(line -> keys.add(STOCK_KEY + line.productId()));
+        lines.forEach(line -> keys.add(line.campaignId() != null
+                ? CAMPAIGN_SOLD_KEY + line.campaignId()
+                : STOCK_KEY + line.productId()));
+        args.add(String.valueOf(lines.size()));
+        for (StockLine line : lines) {
+            args.add(String.valueOf(line.quantity()));
+            args.add(String.valueOf(line.campaignId() == null ? NO_CAMPAIGN
+                    : line.campaignMaxQuantity() == null ? UNLIMITED : line.campaignMaxQuantity()));
+        }
+
+        while (true) {
+            List<?> result = redisTemplate.execute(RESERVE_SCRIPT, keys, args.toArray());
+            long status = (Long) result.get(0);
+            int index = ((Long) result.get(1)).intValue() - 1;
+            if (status == 1) {
+                List<ReservedLine> reserved = new ArrayList<>(lines.size());
+                for (int i = 0; i < lines.size(); i++) {
+                    StockLine line = lines.get(i);
+                    reserved.add(new ReservedLine(line.productId(), line.quantity(), line.campaignId(),
+                            (Long) result.get(i + 1) == 1));
+                }
+                return new Reservation(List.copyOf(reserved));
+            }
+            if (status == 0) {
+                throw new OutOfStockException("Not enough stock for product: " + lines.get(index).productId());
+            }
+            seed(lines, index);
+        }
+    }
+
+    @Override
+    public void release(Reservation reservation) {
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        reservation.lines().forEach(line -> keys.add(STOCK_KEY + line.productId()));
+        reservation.lines().forEach(line -> keys.add(line.discounted()
+                ? CAMPAIGN_SOLD_KEY + line.campaignId()
+                : STOCK_KEY + line.productId()));
+        args.add(String.valueOf(reservation.lines().size()));
+        for (ReservedLine line : reservation.lines()) {
+            args.add(String.valueOf(line.quantity()));
+            args.add(line.discounted() ? "1" : "0");
+        }
+        redisTemplate.execute(RELEASE_SCRIPT, keys, args.toArray());
+    }
+
+    @Override
+    public void commit(Reservation reservation) {
+        stockReconciler.record(reservation);
+    }
+
+    @Override
+    public int available(Long productId, int fallback) {
+        String value = redisTemplate.opsForValue().get(STOCK_KEY + productId);
+        return value != null ? Integer.parseInt(value) : fallback;
+    }
+
+    // Seeds a missing key from the database; SETNX keeps whichever node won the race
+    private void seed(List<StockLine> lines, int keyIndex) {
+        String key;
+        if (keyIndex < lines.size()) {
+            Long productId = lines.get(keyIndex).productId();
+            int quantity = productRepository.findStockQuantityById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            key = STOCK_KEY + productId;
+            redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(quantity));
+        } else {
+            Long campaignId = lines.get(keyIndex - lines.size()).campaignId();
+            int sold = campaignRepository.findSoldQuantityById(campaignId)
+                    .orElseThrow(() -> new RuntimeException("Campaign not found"));
+            key = CAMPAIGN_SOLD_KEY + campaignId;
+            redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(sold));
+        }
+        log.debug("Seeded Redis key {} from the database", key);
+    }
+}
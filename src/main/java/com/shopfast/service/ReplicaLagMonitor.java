@@ -0,0 +1,101 @@
+package com.shopfast.service;
+
+import com.shopfast.config.ReplicaRoutingDataSource;
+import com.shopfast.config.ReplicaRoutingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures replica lag with a heartbeat row.
+ * Each check writes the current time to the primary and reads it back from every
+ * replica; a replica whose copy is older than max-lag, or that cannot be read, is
+ * taken out of read routing until it catches up.
+ */
+@Service
+@ConditionalOnProperty(name = "shopfast.datasource.replica-routing.enabled", havingValue = "true")
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String CREATE_SQL =
+            "CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)";
+
+    private static final String UPDATE_SQL = "UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1";
+
+    private static final String INSERT_SQL = "INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, ?)";
+
+    private static final String SELECT_SQL = "SELECT beat_millis FROM replication_heartbeat WHERE id = 1";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    private final ReplicaRoutingProperties properties;
+
+    private final JdbcTemplate primary;
+
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+
+    // Last measured lag per replica, -1 while it cannot be read
+    private final Map<String, AtomicLong> lagMillis = new LinkedHashMap<>();
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, ReplicaRoutingProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.properties = properties;
+        this.primary = new JdbcTemplate(routingDataSource.getPrimary());
+        routingDataSource.getReplicas().forEach((name, dataSource) -> {
+            AtomicLong lag = new AtomicLong(-1);
+            replicas.put(name, new JdbcTemplate(dataSource));
+            lagMillis.put(name, lag);
+            TimeGauge.builder("shopfast.datasource.replica.lag", lag, TimeUnit.MILLISECONDS,
+                            value -> value.get() < 0 ? Double.NaN : value.get())
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        primary.execute(CREATE_SQL);
+        check();
+    }
+
+    @Scheduled(fixedDelayString = "${shopfast.datasource.replica-routing.check-interval-ms:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update(UPDATE_SQL, now) == 0) {
+                primary.update(INSERT_SQL, now);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Replication heartbeat write failed: {}", e.getMessage());
+            return;
+        }
+
+        replicas.forEach((name, replica) -> {
+            long lag = lag(replica, now);
+            lagMillis.get(name).set(lag);
+            routingDataSource.setLagging(name, lag < 0 || lag > properties.getMaxLag().toMillis());
+        });
+    }
+
+    private static long lag(JdbcTemplate replica, long now) {
+        try {
+            List<Long> beats = replica.queryForList(SELECT_SQL, Long.class);
+            return beats.isEmpty() ? -1 : Math.max(0, now - beats.get(0));
+        } catch (RuntimeException e) {
+            log.debug("Replica heartbeat read failed: {}", e.getMessage());
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.shopfast.service;
+
+import com.shopfast.config.AnalyticsProperties;
+import com.shopfast.exception.InvalidRequestException;
+import com.shopfast.model.Money;
+import com.shopfast.model.dto.SaleRow;
+import com.shopfast.model.dto.SalesReport;
+import com.shopfast.model.entity.Order;
+import com.shopfast.model.entity.OrderItem;
+import com.shopfast.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Live sales figures kept in memory, so dashboards never scan the orders table.
+ * All sales, each product and each campaign have a series of per-second, per-minute and
+ * per-hour bucket rings; a bucket holds striped counters for orders, units and revenue in
+ * minor units and is allocated on first use. Orders are added once their transaction has
+ * committed, and the rings are rebuilt from the orders table at startup. A range is read
+ * from the coarsest buckets that fit inside it, so a day costs 24 bucket reads per series.
+ * Each node only adds the orders it placed itself after starting.
+ * Memory: a series holds 2,460 ring slots with the default retention (about 10 KB) plus
+ * about 130 bytes per bucket in use, so at most about 330 KB for a product that sells
+ * every second and a few KB for one that sells a few times a day. Product and campaign
+ * series without a sale inside the hour retention are evicted, so only what sold in the
+ * last 30 days is held, which is bounded by the size of the catalog and its campaigns.
+ */
+@Service
+@Slf4j
+public class SalesAnalytics {
+
+    private static final int[] SECONDS = {1, 60, 3600};
+
+    // Indexes into SECONDS, coarsest first
+    private static final int[] COARSEST_FIRST = {2, 1, 0};
+
+    private final OrderRepository orderRepository;
+
+    private final TransactionTemplate readTransaction;
+
+    private final int[] ringSizes;
+
+    private final Series total;
+
+    private final ConcurrentHashMap<Long, Series> products = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, Series> campaigns = new ConcurrentHashMap<>();
+
+    // Sales are added under the read lock, so eviction cannot drop a series while a sale goes into it
+    private final ReentrantReadWriteLock evictionLock = new ReentrantReadWriteLock();
+
+    public SalesAnalytics(OrderRepository orderRepository, PlatformTransactionManager transactionManager,
+                          AnalyticsProperties properties) {
+        this.orderRepository = orderRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.ringSizes = new int[]{
+                (int) properties.getSecondRetention().toSeconds(),
+                (int) properties.getMinuteRetention().toMinutes(),
+                (int) properties.getHourRetention().toHours()};
+        this.total = new Series();
+    }
+
+    // Called after the orders have committed
+    public void record(List<Order> orders) {
+        for (Order order : orders) {
+            Sale sale = new Sale(epochSecond(order.getCreatedAt()));
+            for (OrderItem item : order.getOrderItems()) {
+                sale.add(item.getProduct().getId(), item.getCampaignId(), item.getQuantity(),
+                        Money.toMinor(item.getTotalPrice()));
+            }
+            add(sale);
+        }
+    }
+
+    public SalesReport report(LocalDateTime from, LocalDateTime to) {
+        // A partial second at the end counts as a whole one, so "until now" includes the current second
+        return report(epochSecond(from), epochSecond(to) + (to.getNano() > 0 ? 1 : 0), Instant.now().getEpochSecond());
+    }
+
+    SalesReport report(long from, long to, long now) {
+        if (from >= to) {
+            throw new InvalidRequestException("from must be before to");
+        }
+        Plan plan = plan(from, to, now);
+        long[] sums = total.sum(plan);
+        return new SalesReport(localTime(plan.from()), localTime(plan.to()), sums[0], sums[1], Money.toAmount(sums[2]),
+                lines(products, plan), lines(campaigns, plan));
+    }
+
+    // Reads the orders of the longest retention period; runs before any order is placed
+    @PostConstruct
+    public void rebuild() {
+        long since = Instant.now().getEpochSecond() - (long) ringSizes[2] * SECONDS[2];
+        int[] orders = new int[1];
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<SaleRow> rows = orderRepository.streamSalesSince(localTime(since))) {
+                Sale[] current = new Sale[1];
+                Long[] currentOrderId = new Long[1];
+                rows.forEach(row -> {
+                    if (!row.orderId().equals(currentOrderId[0])) {
+                        if (current[0] != null) {
+                            add(current[0]);
+                            orders[0]++;
+                        }
+                        current[0] = new Sale(epochSecond(row.createdAt()));
+                        currentOrderId[0] = row.orderId();
+                    }
+                    current[0].add(row.productId(), row.campaignId(), row.quantity(), Money.toMinor(row.totalPrice()));
+                });
+                if (current[0] != null) {
+                    add(current[0]);
+                    orders[0]++;
+                }
+            }
+        });
+        log.info("Sales analytics rebuilt from {} orders", orders[0]);
+    }
+
+    @Scheduled(fixedDelayString = "${shopfast.analytics.eviction-interval-ms:600000}")
+    public void evictIdle() {
+        evictIdle(Instant.now().getEpochSecond());
+    }
+
+    // Drops product and campaign series whose last sale is older than the hour rings reach
+    void evictIdle(long now) {
+        long oldest = (currentUnit(2, now) - ringSizes[2] + 1) * SECONDS[2];
+        int before = products.size() + campaigns.size();
+        evictionLock.writeLock().lock();
+        try {
+            products.values().removeIf(series -> series.lastSale.get() < oldest);
+            campaigns.values().removeIf(series -> series.lastSale.get() < oldest);
+        } finally {
+            evictionLock.writeLock().unlock();
+        }
+        log.debug("Evicted {} idle sales series", before - products.size() - campaigns.size());
+    }
+
+    int seriesCount() {
+        return products.size() + campaigns.size();
+    }
+
+    private void add(Sale sale) {
+        total.add(sale.epochSecond, 1, sale.units, sale.revenueMinor);
+        evictionLock.readLock().lock();
+        try {
+            sale.products.forEach((id, line) ->
+                    products.computeIfAbsent(id, key -> new Series()).add(sale.epochSecond, 1, line[0], line[1]));
+            sale.campaigns.forEach((id, line) ->
+                    campaigns.computeIfAbsent(id, key -> new Series()).add(sale.epochSecond, 1, line[0], line[1]));
+        } finally {
+            evictionLock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Splits [from, to) into buckets, taking the coarsest one that starts at the current
+     * position and fits before the end. Positions no longer held by the finer rings are
+     * read from the finest ring that still covers them, widening the range to that bucket.
+     */
+    private Plan plan(long from, long to, long now) {
+        long oldest = (currentUnit(2, now) - ringSizes[2] + 1) * SECONDS[2];
+        long end = Math.min(to, now + 1);
+        List<long[]> buckets = new ArrayList<>();
+        long position = Math.max(from, oldest);
+        long first = position;
+        while (position < end) {
+            int resolution = -1;
+            for (int candidate : COARSEST_FIRST) {
+                if (position % SECONDS[candidate] == 0 && position + SECONDS[candidate] <= end
+                        && covers(candidate, position, now)) {
+                    resolution = candidate;
+                    break;
+                }
+            }
+            if (resolution < 0) {
+                for (int candidate = 0; candidate < SECONDS.length && resolution < 0; candidate++) {
+                    if (covers(candidate, position, now)) {
+                        resolution = candidate;
+                    }
+                }
+            }
+            long unit = Math.floorDiv(position, SECONDS[resolution]);
+            buckets.add(new long[]{resolution, unit});
+            first = Math.min(first, unit * SECONDS[resolution]);
+            position = (unit + 1) * SECONDS[resolution];
+        }
+        return new Plan(buckets, first, Math.max(first, position));
+    }
+
+    private boolean covers(int resolution, long epochSecond, long now) {
+        return Math.floorDiv(epochSecond, SECONDS[resolution]) > currentUnit(resolution, now) - ringSizes[resolution];
+    }
+
+    private static long currentUnit(int resolution, long now) {
+        return Math.floorDiv(now, SECONDS[resolution]);
+    }
+
+    private static List<SalesReport.Line> lines(Map<Long, Series> series, Plan plan) {
+        List<SalesReport.Line> lines = new ArrayList<>();
+        series.forEach((id, values) -> {
+            long[] sums = values.sum(plan);
+            if (sums[0] > 0) {
+                lines.add(new SalesReport.Line(id, sums[0], sums[1], Money.toAmount(sums[2])));
+            }
+        });
+        lines.sort(Comparator.comparing(SalesReport.Line::getRevenue).reversed()
+                .thenComparing(SalesReport.Line::getId));
+        return lines;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static LocalDateTime localTime(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+    }
+
+    // Bucket reads of one query, each {resolution, unit}; from and to are the covered range
+    private record Plan(List<long[]> buckets, long from, long to) {
+    }
+
+    // One order broken down by product and campaign: {units, revenue}
+    private static final class Sale {
+
+        private final long epochSecond;
+
+        private final Map<Long, long[]> products = new HashMap<>();
+
+        private final Map<Long, long[]> campaigns = new HashMap<>();
+
+        private long units;
+
+        private long revenueMinor;
+
+        Sale(long epochSecond) {
+            this.epochSecond = epochSecond;
+        }
+
+        void add(Long productId, Long campaignId, int quantity, long totalMinor) {
+            units += quantity;
+            revenueMinor += totalMinor;
+            addTo(products, productId, quantity, totalMinor);
+            if (campaignId != null) {
+                addTo(campaigns, campaignId, quantity, totalMinor);
+            }
+        }
+
+        private static void addTo(Map<Long, long[]> lines, Long id, int quantity, long totalMinor) {
+            long[] line = lines.computeIfAbsent(id, key -> new long[2]);
+            line[0] += quantity;
+            line[1] += totalMinor;
+        }
+    }
+
+    private final class Series {
+
+        private final List<AtomicReferenceArray<Bucket>> rings = new ArrayList<>(SECONDS.length);
+
+        private final AtomicLong lastSale = new AtomicLong(Long.MIN_VALUE);
+
+        Series() {
+            for (int size : ringSizes) {
+                rings.add(new AtomicReferenceArray<>(size));
+            }
+        }
+
+        void add(long epochSecond, long orders, long units, long revenueMinor) {
+            lastSale.accumulateAndGet(epochSecond, Math::max);
+            for (int resolution = 0; resolution < SECONDS.length; resolution++) {
+                Bucket bucket = bucket(resolution, Math.floorDiv(epochSecond, SECONDS[resolution]));
+                if (bucket != null) {
+                    bucket.orders.add(orders);
+                    bucket.units.add(units);
+                    bucket.revenueMinor.add(revenueMinor);
+                }
+            }
+        }
+
+        // {orders, units, revenue}
+        long[] sum(Plan plan) {
+            long[] sums = new long[3];
+            for (long[] read : plan.buckets()) {
+                AtomicReferenceArray<Bucket> ring = rings.get((int) read[0]);
+                Bucket bucket = ring.get(slot(ring, read[1]));
+                if (bucket != null && bucket.unit == read[1]) {
+                    sums[0] += bucket.orders.sum();
+                    sums[1] += bucket.units.sum();
+                    sums[2] += bucket.revenueMinor.sum();
+                }
+            }
+            return sums;
+        }
+
+        // The bucket of the unit, replacing the expired one in its slot; null if the slot already moved past it
+        private Bucket bucket(int resolution, long unit) {
+            AtomicReferenceArray<Bucket> ring = rings.get(resolution);
+            int slot = slot(ring, unit);
+            while (true) {
+                Bucket current = ring.get(slot);
+                if (current != null && current.unit >= unit) {
+                    return current.unit == unit ? current : null;
+                }
+                Bucket fresh = new Bucket(unit);
+                if (ring.compareAndSet(slot, current, fresh)) {
+                    return fresh;
+                }
+            }
+        }
+
+        private static int slot(AtomicReferenceArray<Bucket> ring, long unit) {
+            return (int) Math.floorMod(unit, (long) ring.length());
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long unit;
+
+        private final LongAdder orders = new LongAdder();
+
+        private final LongAdder units = new LongAdder();
+
+        private final LongAdder revenueMinor = new LongAdder();
+
+        Bucket(long unit) {
+            this.unit = unit;
+        }
+    }
+}
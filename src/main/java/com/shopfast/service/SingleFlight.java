@@ -0,0 +1,111 @@
+package com.shopfast.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent loads of the same key into one.
+ * The first caller for a key runs the loader on its own thread and publishes the result
+ * through a future; callers arriving while it runs wait on that future instead of loading
+ * again. With a grace period the finished result is also handed to callers arriving
+ * shortly after. Failures are passed to the waiting callers but never reused.
+ * Calls are counted as shopfast.singleflight.calls{name, result=loaded|joined|reused}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    private final long graceNanos;
+
+    private final Counter loaded;
+
+    private final Counter joined;
+
+    private final Counter reused;
+
+    public SingleFlight(String name, Duration grace, MeterRegistry meterRegistry) {
+        this.graceNanos = grace.toNanos();
+        this.loaded = meterRegistry.counter("shopfast.singleflight.calls", "name", name, "result", "loaded");
+        this.joined = meterRegistry.counter("shopfast.singleflight.calls", "name", name, "result", "joined");
+        this.reused = meterRegistry.counter("shopfast.singleflight.calls", "name", name, "result", "reused");
+        meterRegistry.gaugeMapSize("shopfast.singleflight.keys", Tags.of("name", name), flights);
+    }
+
+    public V load(K key, Function<? super K, ? extends V> loader) {
+        while (true) {
+            Flight<V> mine = new Flight<>();
+            Flight<V> existing = flights.putIfAbsent(key, mine);
+            if (existing == null) {
+                return run(key, mine, loader);
+            }
+            if (!existing.result.isDone()) {
+                joined.increment();
+                return await(existing.result);
+            }
+            if (System.nanoTime() - existing.expiresAt < 0 && !existing.result.isCompletedExceptionally()) {
+                reused.increment();
+                return existing.result.join();
+            }
+            // Past its grace period; the next attempt starts a new load
+            flights.remove(key, existing);
+        }
+    }
+
+    // Later callers load again; callers already waiting still get the running load's result
+    public void forget(K key) {
+        flights.remove(key);
+    }
+
+    private V run(K key, Flight<V> flight, Function<? super K, ? extends V> loader) {
+        loaded.increment();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (Throwable e) {
+            // Errors too, or joined callers would wait forever on a flight nobody completes
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+
+        flight.expiresAt = System.nanoTime() + graceNanos;
+        flight.result.complete(value);
+        if (graceNanos > 0) {
+            CompletableFuture.delayedExecutor(graceNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> flights.remove(key, flight));
+        } else {
+            flights.remove(key, flight);
+        }
+        return value;
+    }
+
+    private static <V> V await(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Flight<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        // Set before the result completes
+        private volatile long expiresAt;
+    }
+}
@@ -0,0 +1,80 @@
+package com.shopfast.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind reconciliation of committed reservations (memory and Redis stores).
+ * Net deltas are collected per product and per campaign and applied to
+ * products.stock_quantity and campaigns.sold_quantity in JDBC batches. Deltas are
+ * additive, so every application node can flush its own share independently.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReconciler {
+
+    private static final String STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String SOLD_SQL =
+            "UPDATE campaigns SET sold_quantity = sold_quantity + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, AtomicInteger> soldStock = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, AtomicInteger> soldCampaignUnits = new ConcurrentHashMap<>();
+
+    // Marks reserved units as sold; they are written to the database by the next flush
+    public void record(StockStore.Reservation reservation) {
+        for (StockStore.ReservedLine line : reservation.lines()) {
+            soldStock.computeIfAbsent(line.productId(), id -> new AtomicInteger()).addAndGet(line.quantity());
+            if (line.discounted()) {
+                soldCampaignUnits.computeIfAbsent(line.campaignId(), id -> new AtomicInteger()).addAndGet(line.quantity());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shopfast.inventory.flush-interval-ms:500}")
+    public void flush() {
+        flush(STOCK_SQL, soldStock);
+        flush(SOLD_SQL, soldCampaignUnits);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flush(String sql, ConcurrentHashMap<Long, AtomicInteger> deltas) {
+        List<Object[]> batch = new ArrayList<>();
+        deltas.forEach((id, delta) -> {
+            int value = delta.getAndSet(0);
+            if (value != 0) {
+                batch.add(new Object[]{value, id});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(sql, batch);
+            log.debug("Flushed {} deltas: {}", batch.size(), sql);
+        } catch (RuntimeException e) {
+            // Keep the deltas so the next run retries them
+            batch.forEach(row -> deltas.get((Long) row[1]).addAndGet((Integer) row[0]));
+            log.error("Delta flush failed, {} deltas will be retried: {}", batch.size(), e.getMessage());
+        }
+    }
+}
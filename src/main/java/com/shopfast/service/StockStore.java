@@ -0,0 +1,52 @@
+package com.shopfast.service;
+
+import java.util.List;
+
+/**
+ * Atomic stock and campaign quota counters shared by the order path.
+ * A reservation either takes every line or none of them; each line also claims
+ * discounted units from its campaign when the campaign quota still covers it.
+ */
+public interface StockStore {
+
+    /**
+     * Reserves all lines in one step. Lines must be unique per product.
+     *
+     * @throws com.shopfast.exception.OutOfStockException if any product lacks stock
+     */
+    Reservation reserve(List<StockLine> lines);
+
+    // Returns reserved stock and campaign units (order failed before commit)
+    void release(Reservation reservation);
+
+    // Marks a reservation as sold once the order transaction has committed
+    void commit(Reservation reservation);
+
+    int available(Long productId, int fallback);
+
+    /**
+     * @param campaignId          active campaign of the product, or null
+     * @param campaignMaxQuantity campaign quota, or null when unlimited
+     */
+    record StockLine(Long productId, int quantity, Long campaignId, Integer campaignMaxQuantity) {
+    }
+
+    record ReservedLine(Long productId, int quantity, Long campaignId, boolean discounted) {
+    }
+
+    record Reservation(List<ReservedLine> lines) {
+
+        public List<Long> productIds() {
+            return lines.stream().map(ReservedLine::productId).toList();
+        }
+
+        public boolean isDiscounted(Long productId) {
+            for (ReservedLine line : lines) {
+                if (line.productId().equals(productId)) {
+                    return line.discounted();
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -23,9 +23,13 @@ INSERT INTO campaigns (name, description, product_id, discount_percentage, max_q
 INSERT INTO campaigns (name, description, product_id, discount_percentage, max_quantity, start_date, end_date, is_active, sold_quantity, created_at) VALUES ('Nike Flash Sale', 'Nike Air Max için flash sale', 6, 40.00, 100, DATEADD('HOUR', -1, CURRENT_TIMESTAMP), DATEADD('HOUR', 12, CURRENT_TIMESTAMP), true, 0, CURRENT_TIMESTAMP);
 
 -- Sample Orders
-INSERT INTO orders (user_id, total_amount, status, shipping_address, created_at, updated_at) VALUES (1, 2999.99, 'DELIVERED', 'Ankara, Turkey', DATEADD('DAY', -5, CURRENT_TIMESTAMP), DATEADD('DAY', -5, CURRENT_TIMESTAMP));
-INSERT INTO orders (user_id, total_amount, status, shipping_address, created_at, updated_at) VALUES (2, 54999.99, 'SHIPPED', 'Istanbul, Turkey', DATEADD('DAY', -3, CURRENT_TIMESTAMP), DATEADD('DAY', -3, CURRENT_TIMESTAMP));
+INSERT INTO orders (id, user_id, total_amount, status, shipping_address, created_at, updated_at) VALUES (1, 1, 2999.99, 'DELIVERED', 'Ankara, Turkey', DATEADD('DAY', -5, CURRENT_TIMESTAMP), DATEADD('DAY', -5, CURRENT_TIMESTAMP));
+INSERT INTO orders (id, user_id, total_amount, status, shipping_address, created_at, updated_at) VALUES (2, 2, 54999.99, 'SHIPPED', 'Istanbul, Turkey', DATEADD('DAY', -3, CURRENT_TIMESTAMP), DATEADD('DAY', -3, CURRENT_TIMESTAMP));
 
 -- Sample Order Items
-INSERT INTO order_items (order_id, product_id, quantity, unit_price, total_price) VALUES (1, 5, 1, 2999.99, 2999.99);
-INSERT INTO order_items (order_id, product_id, quantity, unit_price, total_price) VALUES (2, 2, 1, 54999.99, 54999.99);
\ No newline at end of file
+INSERT INTO order_items (id, order_id, product_id, quantity, unit_price, total_price) VALUES (1, 1, 5, 1, 2999.99, 2999.99);
+INSERT INTO order_items (id, order_id, product_id, quantity, unit_price, total_price) VALUES (2, 2, 2, 1, 54999.99, 54999.99);
+
+-- Order ids come from pooled sequences (blocks of 50); start them past the sample rows
+ALTER SEQUENCE orders_seq RESTART WITH 100;
+ALTER SEQUENCE order_items_seq RESTART WITH 100;
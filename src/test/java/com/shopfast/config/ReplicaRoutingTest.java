@@ -0,0 +1,117 @@
+package com.shopfast.config;
+
+import com.shopfast.service.CampaignService;
+import com.shopfast.service.ProductService;
+import com.shopfast.service.ReplicaLagMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The in-sync replica shares the primary's in-memory database through its own pool; the
+ * stale one is a separate database that never receives the heartbeat.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "shopfast.datasource.replica-routing.enabled=true",
+        "shopfast.datasource.replica-routing.check-interval-ms=3600000",
+        // Keep scheduled jobs off the primary pool while the tests count its acquisitions
+        "shopfast.notifications.poll-interval-ms=3600000",
+        "shopfast.inventory.flush-interval-ms=3600000",
+        "shopfast.datasource.replica-routing.replicas[0].name=replica-1",
+        "shopfast.datasource.replica-routing.replicas[0].url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "shopfast.datasource.replica-routing.replicas[0].username=sa",
+        "shopfast.datasource.replica-routing.replicas[0].password=password",
+        "shopfast.datasource.replica-routing.replicas[1].name=stale-replica",
+        "shopfast.datasource.replica-routing.replicas[1].url=jdbc:h2:mem:stale-replica;DB_CLOSE_DELAY=-1",
+        "shopfast.datasource.replica-routing.replicas[1].username=sa",
+        "shopfast.datasource.replica-routing.replicas[1].password=password"
+})
+class ReplicaRoutingTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        lagMonitor.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lagMonitor.check();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaInSync() {
+        assertThat(routingDataSource.isLagging("replica-1")).isFalse();
+        assertThat(routingDataSource.isLagging("stale-replica")).isTrue();
+        double replicaReads = reads("replica-1");
+        double primaryAcquires = acquires("primary");
+
+        assertThat(productService.getProductById(1L).getName()).isNotBlank();
+        assertThat(campaignService.getActiveCampaigns()).isNotEmpty();
+
+        assertThat(reads("replica-1")).isEqualTo(replicaReads + 2);
+        assertThat(reads("stale-replica")).isZero();
+        assertThat(acquires("replica-1")).isPositive();
+        assertThat(acquires("primary")).isEqualTo(primaryAcquires);
+    }
+
+    @Test
+    void writesStayOnThePrimary() {
+        double replicaAcquires = acquires("replica-1");
+        double primaryAcquires = acquires("primary");
+
+        transactionTemplate.executeWithoutResult(status -> productService.getProductById(2L));
+
+        assertThat(acquires("primary")).isEqualTo(primaryAcquires + 1);
+        assertThat(acquires("replica-1")).isEqualTo(replicaAcquires);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenEveryReplicaLags() {
+        routingDataSource.setLagging("replica-1", true);
+        double primaryReads = reads(ReplicaRoutingDataSource.PRIMARY);
+        double replicaAcquires = acquires("replica-1");
+
+        assertThat(productService.getProductById(3L).getName()).isNotBlank();
+
+        assertThat(reads(ReplicaRoutingDataSource.PRIMARY)).isEqualTo(primaryReads + 1);
+        assertThat(acquires("replica-1")).isEqualTo(replicaAcquires);
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("shopfast.datasource.reads").tag("target", target).counter().count();
+    }
+
+    private double acquires(String pool) {
+        return meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+    }
+}
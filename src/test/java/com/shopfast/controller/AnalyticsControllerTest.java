@@ -0,0 +1,40 @@
+package com.shopfast.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:analytics-api;DB_CLOSE_DELAY=-1",
+        "shopfast.notifications.poll-interval-ms=3600000",
+        "shopfast.concurrency-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+class AnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void rangeEndingBeforeItStartsIsABadRequest() throws Exception {
+        mockMvc.perform(get("/api/analytics/sales")
+                        .param("from", "2026-01-02T00:00:00")
+                        .param("to", "2026-01-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("from must be before to"));
+
+        mockMvc.perform(get("/api/analytics/sales")
+                        .param("from", "2026-01-01T00:00:00")
+                        .param("to", "2026-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/analytics/sales"))
+                .andExpect(status().isOk());
+    }
+}
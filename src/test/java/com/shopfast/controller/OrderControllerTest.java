@@ -0,0 +1,138 @@
+package com.shopfast.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-api;DB_CLOSE_DELAY=-1",
+        "shopfast.orders.item-processing-delay=0ms",
+        "shopfast.notifications.poll-interval-ms=3600000",
+        "shopfast.concurrency-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+class OrderControllerTest {
+
+    private static final String ORDER = """
+            {"userId": %d, "items": [{"productId": 7, "quantity": 1}], "shippingAddress": "Test Street 1"}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void idempotencyKeyReusedForAnotherOrderIsAConflict() throws Exception {
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "order-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(ORDER.formatted(1)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "order-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(ORDER.formatted(1)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "order-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(ORDER.formatted(2)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail").value("Idempotency-Key already used for a different order"));
+    }
+
+    @Test
+    void blankOrOversizedIdempotencyKeyIsABadRequest() throws Exception {
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", " ")
+                        .contentType(MediaType.APPLICATION_JSON).content(ORDER.formatted(1)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "k".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON).content(ORDER.formatted(1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Idempotency-Key must be 1 to 255 characters"));
+    }
+
+    @Test
+    void batchReportsTheOutcomeOfEachOrder() throws Exception {
+        String batch = """
+                {"orders": [
+                  {"userId": 1, "items": [{"productId": 6, "quantity": 1}], "shippingAddress": "Test Street 1"},
+                  {"userId": 2, "items": [{"productId": 8, "quantity": 100000}], "shippingAddress": "Test Street 2"},
+                  {"userId": 3, "items": [{"productId": 7, "quantity": 2}], "shippingAddress": "Test Street 3"}
+                ]}""";
+
+        mockMvc.perform(post("/api/orders/batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.placed").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].order.userId").value(1))
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[1].order").isEmpty())
+                .andExpect(jsonPath("$.results[1].error").value("Not enough stock for product: 8"))
+                .andExpect(jsonPath("$.results[2].success").value(true))
+                .andExpect(jsonPath("$.results[2].order.items[0].quantity").value(2));
+    }
+
+    @Test
+    void historyPagesAndStreamMatchTheFullList() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON).content(ORDER.formatted(4)))
+                    .andExpect(status().isCreated());
+        }
+        List<Long> all = ids(json(mockMvc.perform(get("/api/orders/user/4")).andReturn()));
+        assertThat(all).hasSize(5);
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = json(mockMvc.perform(get("/api/orders/user/4").param("limit", "2").param("cursor", cursor))
+                    .andExpect(status().isOk()).andReturn());
+            paged.addAll(ids(page.get("items")));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        assertThat(paged).containsExactlyElementsOf(all);
+
+        MvcResult started = mockMvc.perform(get("/api/orders/user/4").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        List<Long> streamed = new ArrayList<>();
+        for (String line : mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn()
+                .getResponse().getContentAsString().split("\n")) {
+            streamed.add(objectMapper.readTree(line).get("id").asLong());
+        }
+        assertThat(streamed).containsExactlyElementsOf(all);
+    }
+
+    @Test
+    void badHistoryCursorIsABadRequest() throws Exception {
+        mockMvc.perform(get("/api/orders/user/1").param("limit", "2").param("cursor", "YWJj"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/user/1").param("limit", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static List<Long> ids(JsonNode orders) {
+        List<Long> ids = new ArrayList<>();
+        orders.forEach(order -> ids.add(order.get("id").asLong()));
+        return ids;
+    }
+}
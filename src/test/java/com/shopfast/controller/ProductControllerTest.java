@@ -0,0 +1,185 @@
+package com.shopfast.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopfast.model.dto.OrderRequest;
+import com.shopfast.repository.CampaignRepository;
+import com.shopfast.repository.ProductRepository;
+import com.shopfast.service.CatalogSnapshots;
+import com.shopfast.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-api;DB_CLOSE_DELAY=-1",
+        "shopfast.notifications.poll-interval-ms=3600000",
+        "shopfast.orders.item-processing-delay=0ms",
+        "shopfast.concurrency-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+class ProductControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogSnapshots catalogSnapshots;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void pagesFollowTheCursorThroughTheWholeCatalog() throws Exception {
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = json(mockMvc.perform(get("/api/products").param("limit", "3")
+                            .param("cursor", cursor))
+                    .andExpect(status().isOk()).andReturn());
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(3);
+            page.get("items").forEach(item -> paged.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        List<Long> all = new ArrayList<>();
+        json(mockMvc.perform(get("/api/products")).andExpect(status().isOk()).andReturn())
+                .forEach(item -> all.add(item.get("id").asLong()));
+        assertThat(paged).isNotEmpty().doesNotHaveDuplicates().containsExactlyElementsOf(all);
+    }
+
+    @Test
+    void badCursorOrLimitIsABadRequest() throws Exception {
+        mockMvc.perform(get("/api/products").param("limit", "3").param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/in-stock").param("limit", "3").param("cursor", "YWJj"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ndjsonStreamsOneProductPerLine() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/products/category/Electronics")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).isNotEmpty();
+        for (String line : lines) {
+            assertThat(objectMapper.readTree(line).get("category").asText()).isEqualTo("Electronics");
+        }
+    }
+
+    @Test
+    void unchangedRebuildKeepsTheBytesAndEtag() throws Exception {
+        MvcResult before = mockMvc.perform(get("/api/products")).andExpect(status().isOk()).andReturn();
+
+        rebuildAfter(catalogSnapshots::expire);
+
+        MvcResult after = mockMvc.perform(get("/api/products")).andExpect(status().isOk()).andReturn();
+        assertThat(after.getResponse().getHeader("ETag")).isEqualTo(before.getResponse().getHeader("ETag"));
+        assertThat(after.getResponse().getContentAsByteArray()).isEqualTo(before.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void productStockAndCampaignChangesGetNewEtags() throws Exception {
+        String products = etag("/api/products");
+        rebuildAfter(() -> transactionTemplate.executeWithoutResult(status ->
+                productRepository.findById(9L).orElseThrow().setDescription("Automatic espresso machine, 2 cups")));
+        String afterProductChange = etag("/api/products");
+        assertThat(afterProductChange).isNotEqualTo(products);
+
+        String inStock = etag("/api/products/in-stock");
+        rebuildAfter(() -> orderService.createOrder(order(8L)));
+        assertThat(etag("/api/products")).isNotEqualTo(afterProductChange);
+        assertThat(etag("/api/products/in-stock")).isNotEqualTo(inStock);
+
+        String campaigns = etag("/api/campaigns/active");
+        rebuildAfter(() -> transactionTemplate.executeWithoutResult(status ->
+                campaignRepository.findWithProductById(2L).orElseThrow().setDiscountPercentage(new BigDecimal("25.00"))));
+        assertThat(etag("/api/campaigns/active")).isNotEqualTo(campaigns);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        String etag = etag("/api/products/category/Electronics");
+
+        MvcResult result = mockMvc.perform(get("/api/products/category/Electronics").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+        assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+    }
+
+    private String etag(String path) throws Exception {
+        String etag = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+
+    // Snapshots are rebuilt in the background, so wait until the change has been picked up
+    private void rebuildAfter(Runnable change) {
+        Timer rebuilds = meterRegistry.get("shopfast.snapshots.rebuild").timer();
+        long count = rebuilds.count();
+        change.run();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (rebuilds.count() == count && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(10_000_000);
+        }
+        assertThat(rebuilds.count()).isGreaterThan(count);
+    }
+
+    private static OrderRequest order(Long productId) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        OrderRequest request = new OrderRequest();
+        request.setUserId(1L);
+        request.setItems(List.of(item));
+        request.setShippingAddress("Test Street 1");
+        return request;
+    }
+
+    private JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
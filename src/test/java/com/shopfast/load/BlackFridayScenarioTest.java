@@ -0,0 +1,23 @@
+package com.shopfast.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The shared Black Friday scenario for each database-independent stock store.
+ * Run with: mvn -Pload test -Dtest=BlackFridayScenarioTest
+ */
+@Tag("load")
+class BlackFridayScenarioTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"memory", "database"})
+    void ordersKeepStockAndQuotaConsistent(String store) throws Exception {
+        try (ConfigurableApplicationContext context = LoadScenario.start("black-friday-" + store,
+                "--shopfast.stock.store=" + store)) {
+            LoadScenario.run(context, LoadScenario.Settings.fromSystemProperties()).print("Black Friday (" + store + " store)");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.shopfast.load;
+
+import com.shopfast.ShopfastEcommerceApplication;
+import com.shopfast.service.StockReconciler;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Black Friday order scenario against an embedded application instance.
+ * Fires concurrent POST /api/orders traffic at the seeded campaign products, records
+ * per-request latency in an HDR histogram and, once the traffic is over, checks the
+ * stock and campaign quota invariants directly in the database.
+ */
+final class LoadScenario {
+
+    private static final String ORDER = """
+            {"userId": %d, "items": [{"productId": %d, "quantity": %d}], "shippingAddress": "Load Test"}""";
+
+    private LoadScenario() {
+    }
+
+    /**
+     * Boots the application on a random port with its own in-memory database.
+     * Arguments override the scenario defaults, e.g. "--shopfast.stock.store=database".
+     */
+    static ConfigurableApplicationContext start(String name, String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + name + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.shopfast=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        arguments.addAll(List.of(args));
+        return new SpringApplicationBuilder(ShopfastEcommerceApplication.class).run(arguments.toArray(String[]::new));
+    }
+
+    static Result run(ConfigurableApplicationContext context, Settings settings) throws Exception {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        long lastOrderId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM orders", Long.class);
+        Map<Long, Integer> stockBefore = stock(jdbc);
+        Map<Long, Integer> soldBefore = campaignSold(jdbc);
+
+        URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/orders");
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(10), 3);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        AtomicInteger dropped = new AtomicInteger();
+        Random random = new Random(settings.seed());
+        ExecutorService clients = Executors.newFixedThreadPool(settings.clients());
+        List<Future<?>> requests = new ArrayList<>(settings.orders());
+        long start = System.nanoTime();
+        for (int i = 0; i < settings.orders(); i++) {
+            long productId = settings.productIds().get(random.nextInt(settings.productIds().size()));
+            int quantity = 1 + random.nextInt(settings.maxQuantity());
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(ORDER.formatted(i % settings.users() + 1, productId, quantity)))
+                    .build();
+            requests.add(clients.submit(() -> {
+                long sent = System.nanoTime();
+                int status;
+                try {
+                    status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    // Connection refused or closed by an overloaded server
+                    dropped.incrementAndGet();
+                    return null;
+                }
+                // Shed requests are counted but kept out of the latency of the admitted ones
+                if (status == 429) {
+                    shed.incrementAndGet();
+                    return null;
+                }
+                latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+                if (status == 201) {
+                    created.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> request : requests) {
+            request.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+
+        // Write-behind stores keep sold units in memory until the next flush
+        context.getBean(StockReconciler.class).flush();
+        assertInvariants(jdbc, lastOrderId, created.get(), stockBefore, soldBefore);
+
+        return new Result(settings.orders(), created.get(), shed.get(), dropped.get(), settings.orders() / (elapsed / 1_000_000_000.0), latency);
+    }
+
+    private static void assertInvariants(JdbcTemplate jdbc, long lastOrderId, int created,
+                                         Map<Long, Integer> stockBefore, Map<Long, Integer> soldBefore) {
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM orders WHERE id > ?", Integer.class, lastOrderId))
+                .as("orders persisted").isEqualTo(created);
+
+        Map<Long, Integer> stockAfter = stock(jdbc);
+        Map<Long, Integer> ordered = quantities(jdbc, """
+                SELECT oi.product_id, SUM(oi.quantity) FROM order_items oi
+                WHERE oi.order_id > ? GROUP BY oi.product_id""", lastOrderId);
+        stockAfter.forEach((productId, stock) -> {
+            assertThat(stock).as("stock of product %d", productId).isNotNegative();
+            assertThat(stockBefore.get(productId) - stock).as("units sold of product %d", productId)
+                    .isEqualTo(ordered.getOrDefault(productId, 0));
+        });
+
+        Map<Long, Integer> soldAfter = campaignSold(jdbc);
+        Map<Long, Integer> discounted = quantities(jdbc, """
+                SELECT oi.campaign_id, SUM(oi.quantity) FROM order_items oi
+                WHERE oi.order_id > ? AND oi.campaign_id IS NOT NULL GROUP BY oi.campaign_id""", lastOrderId);
+        jdbc.query("SELECT id, max_quantity FROM campaigns WHERE max_quantity IS NOT NULL", row -> {
+            long campaignId = row.getLong(1);
+            assertThat(soldAfter.get(campaignId)).as("quota of campaign %d", campaignId)
+                    .isLessThanOrEqualTo(row.getInt(2));
+        });
+        soldAfter.forEach((campaignId, sold) -> assertThat(sold - soldBefore.get(campaignId))
+                .as("discounted units of campaign %d", campaignId)
+                .isEqualTo(discounted.getOrDefault(campaignId, 0)));
+    }
+
+    private static Map<Long, Integer> stock(JdbcTemplate jdbc) {
+        return quantities(jdbc, "SELECT id, stock_quantity FROM products");
+    }
+
+    private static Map<Long, Integer> campaignSold(JdbcTemplate jdbc) {
+        return quantities(jdbc, "SELECT id, COALESCE(sold_quantity, 0) FROM campaigns");
+    }
+
+    private static Map<Long, Integer> quantities(JdbcTemplate jdbc, String sql, Object... args) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        jdbc.query(sql, row -> {
+            quantities.put(row.getLong(1), row.getInt(2));
+        }, args);
+        return quantities;
+    }
+
+    /**
+     * Scenario parameters. Defaults target the seeded campaign products (iPhone, MacBook
+     * and Nike) and can be overridden with -Dscenario.clients, -Dscenario.orders,
+     * -Dscenario.products (comma separated), -Dscenario.max-quantity and -Dscenario.seed.
+     */
+    record Settings(int clients, int orders, List<Long> productIds, int maxQuantity, int users, long seed) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("scenario.clients", 16),
+                    Integer.getInteger("scenario.orders", 300),
+                    List.of(System.getProperty("scenario.products", "1,3,6").split(",")).stream()
+                            .map(String::trim).map(Long::valueOf).collect(Collectors.toList()),
+                    Integer.getInteger("scenario.max-quantity", 3),
+                    5,
+                    Long.getLong("scenario.seed", 42L));
+        }
+    }
+
+    record Result(int sent, int created, int shed, int dropped, double throughput, Histogram latency) {
+
+        void print(String label) {
+            System.out.printf("%s: %d/%d orders created, %d shed, %d dropped, %.1f requests/s, %.1f orders/s created, latency p50 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms%n",
+                    label, created, sent, shed, dropped, throughput, throughput * created / sent,
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getValueAtPercentile(99.9) / 1000.0,
+                    latency.getMaxValue() / 1000.0);
+        }
+    }
+}
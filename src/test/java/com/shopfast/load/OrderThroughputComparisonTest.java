@@ -0,0 +1,30 @@
+package com.shopfast.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * POST /api/orders throughput with platform threads versus virtual threads.
+ * Runs the Black Friday scenario once per mode. Run with: mvn -Pload test
+ */
+@Tag("load")
+class OrderThroughputComparisonTest {
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        LoadScenario.Result platform = measure(false);
+        LoadScenario.Result virtual = measure(true);
+
+        platform.print("POST /api/orders platform threads");
+        virtual.print("POST /api/orders virtual threads");
+    }
+
+    private static LoadScenario.Result measure(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = LoadScenario.start("throughput-" + mode,
+                "--spring.threads.virtual.enabled=" + virtualThreads)) {
+            return LoadScenario.run(context, LoadScenario.Settings.fromSystemProperties());
+        }
+    }
+}
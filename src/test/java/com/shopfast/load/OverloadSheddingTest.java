@@ -0,0 +1,32 @@
+package com.shopfast.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * POST /api/orders far beyond capacity: the old small Tomcat pool, where excess requests
+ * queue for a thread, against the adaptive concurrency limit, which sheds them with a 429.
+ * Run with: mvn -Pload test -Dtest=OverloadSheddingTest -Dscenario.clients=200 -Dscenario.orders=300 -Dscenario.products=6,7,8
+ */
+@Tag("load")
+class OverloadSheddingTest {
+
+    @Test
+    void compareQueueingWithShedding() throws Exception {
+        LoadScenario.Result queueing = measure("queueing",
+                "--shopfast.concurrency-limit.enabled=false",
+                "--server.tomcat.threads.max=5",
+                "--server.tomcat.max-connections=20");
+        LoadScenario.Result shedding = measure("shedding");
+
+        queueing.print("Overload, Tomcat queue");
+        shedding.print("Overload, concurrency limit");
+    }
+
+    private static LoadScenario.Result measure(String name, String... args) throws Exception {
+        try (ConfigurableApplicationContext context = LoadScenario.start("overload-" + name, args)) {
+            return LoadScenario.run(context, LoadScenario.Settings.fromSystemProperties());
+        }
+    }
+}
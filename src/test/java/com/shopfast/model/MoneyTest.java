@@ -0,0 +1,41 @@
+package com.shopfast.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void discountedPriceIsRoundedHalfUpToTheCent() {
+        assertThat(Money.discountedPrice(new BigDecimal("59999.99"), new BigDecimal("50.00")))
+                .isEqualByComparingTo("30000.00");
+        assertThat(Money.discountedPrice(new BigDecimal("89999.99"), new BigDecimal("30.00")))
+                .isEqualByComparingTo("62999.99");
+        assertThat(Money.discountedPrice(new BigDecimal("0.01"), new BigDecimal("50.00")))
+                .isEqualByComparingTo("0.01");
+    }
+
+    @Test
+    void fractionalPercentagesAreRoundedHalfUpToTheCent() {
+        assertThat(Money.discountedPrice(new BigDecimal("10.00"), new BigDecimal("33.33")))
+                .isEqualByComparingTo("6.67");
+    }
+
+    @Test
+    void amountsMapToScaleTwo() {
+        assertThat(Money.toMinor(new BigDecimal("1299.99"))).isEqualTo(129999L);
+        assertThat(Money.toMinor(new BigDecimal("12.345"))).isEqualTo(1235L);
+        assertThat(Money.toAmount(129999L)).isEqualTo(new BigDecimal("1299.99"));
+        assertThat(Money.lineTotal(129999L, 3)).isEqualTo(389997L);
+    }
+
+    @Test
+    void overflowIsRejected() {
+        assertThatThrownBy(() -> Money.lineTotal(Long.MAX_VALUE / 2, 3)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.discountedPrice(100L, 10_001)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
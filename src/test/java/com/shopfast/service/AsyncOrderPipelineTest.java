@@ -0,0 +1,162 @@
+package com.shopfast.service;
+
+import com.shopfast.config.AsyncOrderProperties;
+import com.shopfast.exception.OrderIntakeFullException;
+import com.shopfast.model.dto.OrderRequest;
+import com.shopfast.model.dto.OrderResponse;
+import com.shopfast.model.dto.OrderStatusResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Four slots and one slow pricing worker, so the ring fills up before anything is persisted.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-orders;DB_CLOSE_DELAY=-1",
+        "shopfast.orders.async.enabled=true",
+        "shopfast.orders.async.buffer-size=4",
+        "shopfast.orders.async.pricing-workers=1",
+        "shopfast.orders.item-processing-delay=200ms",
+        "shopfast.notifications.poll-interval-ms=3600000"
+})
+class AsyncOrderPipelineTest {
+
+    @Autowired
+    private AsyncOrderPipeline pipeline;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private AsyncOrderProperties properties;
+
+    @Autowired
+    private StockStore stockStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void acceptsUntilFullAndReportsEachOutcome() {
+        // Slots are freed just after their outcome is published, so let earlier orders finish
+        Gauge backlog = meterRegistry.get("shopfast.orders.async.backlog").gauge();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (backlog.value() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(10_000_000);
+        }
+        List<OrderStatusResponse> accepted = List.of(
+                pipeline.submit(order(1L, 6L)),
+                pipeline.submit(order(999L, 7L)),
+                pipeline.submit(order(2L, 7L)),
+                pipeline.submit(order(3L, 8L)));
+        assertThat(accepted).extracting(OrderStatusResponse::getStatus).containsOnly(OrderStatusResponse.Status.ACCEPTED);
+        assertThatThrownBy(() -> pipeline.submit(order(4L, 6L))).isInstanceOf(OrderIntakeFullException.class);
+
+        List<OrderStatusResponse> outcomes = accepted.stream().map(status -> awaitOutcome(status.getToken())).toList();
+        assertThat(outcomes).extracting(OrderStatusResponse::getStatus).containsExactly(
+                OrderStatusResponse.Status.PLACED, OrderStatusResponse.Status.FAILED,
+                OrderStatusResponse.Status.PLACED, OrderStatusResponse.Status.PLACED);
+        assertThat(outcomes.get(0).getOrder().getId()).isNotNull();
+        assertThat(outcomes.get(1).getError()).isEqualTo("User not found");
+
+        // The slots are free again
+        assertThat(awaitOutcome(pipeline.submit(order(4L, 6L)).getToken()).getStatus())
+                .isEqualTo(OrderStatusResponse.Status.PLACED);
+        assertThat(pipeline.status("unknown")).isNull();
+    }
+
+    @Test
+    void failedBatchTransactionFailsItsOrdersAndReleasesTheirStock() {
+        int before = stockStore.available(8L, -1);
+        assertThat(before).isPositive();
+
+        // The missing shipping address only fails when the batch is flushed
+        OrderStatusResponse failed = awaitOutcome(pipeline, pipeline.submit(order(1L, 8L, null)).getToken());
+        assertThat(failed.getStatus()).isEqualTo(OrderStatusResponse.Status.FAILED);
+        assertThat(stockStore.available(8L, -1)).isEqualTo(before);
+
+        // The persistence thread is still running
+        assertThat(awaitOutcome(pipeline, pipeline.submit(order(1L, 8L)).getToken()).getStatus())
+                .isEqualTo(OrderStatusResponse.Status.PLACED);
+    }
+
+    @Test
+    void stopPlacesEveryAcceptedOrder() throws InterruptedException {
+        AsyncOrderPipeline stopping = new AsyncOrderPipeline(orderService, properties, new SimpleMeterRegistry());
+        stopping.start();
+        List<String> tokens = List.of(
+                stopping.submit(order(1L, 6L)).getToken(),
+                stopping.submit(order(2L, 7L)).getToken(),
+                stopping.submit(order(3L, 8L)).getToken());
+
+        stopping.stop();
+
+        assertThat(tokens).extracting(token -> stopping.status(token).getStatus())
+                .containsOnly(OrderStatusResponse.Status.PLACED);
+        assertThatThrownBy(() -> stopping.submit(order(4L, 6L))).isInstanceOf(OrderIntakeFullException.class);
+    }
+
+    @Test
+    void errorInAStageOnlyFailsItsOrder() throws InterruptedException {
+        OrderService failing = mock(OrderService.class);
+        doThrow(new StackOverflowError()).doNothing().when(failing).checkItems(any());
+        when(failing.placeOrders(any())).thenAnswer(call -> ((List<?>) call.getArgument(0)).stream()
+                .map(prepared -> OrderService.OrderOutcome.placed(new OrderResponse()))
+                .toList());
+        AsyncOrderPipeline isolated = new AsyncOrderPipeline(failing, properties, new SimpleMeterRegistry());
+        isolated.start();
+        try {
+            OrderStatusResponse first = awaitOutcome(isolated, isolated.submit(order(1L, 6L)).getToken());
+            OrderStatusResponse second = awaitOutcome(isolated, isolated.submit(order(2L, 6L)).getToken());
+
+            assertThat(first.getStatus()).isEqualTo(OrderStatusResponse.Status.FAILED);
+            assertThat(first.getError()).isEqualTo("StackOverflowError");
+            assertThat(second.getStatus()).isEqualTo(OrderStatusResponse.Status.PLACED);
+        } finally {
+            isolated.stop();
+        }
+    }
+
+    private OrderStatusResponse awaitOutcome(String token) {
+        return awaitOutcome(pipeline, token);
+    }
+
+    private static OrderStatusResponse awaitOutcome(AsyncOrderPipeline pipeline, String token) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        OrderStatusResponse status = pipeline.status(token);
+        while (status.getStatus() == OrderStatusResponse.Status.ACCEPTED && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(10_000_000);
+            status = pipeline.status(token);
+        }
+        return status;
+    }
+
+    private static OrderRequest order(Long userId, Long productId) {
+        return order(userId, productId, "Test Street 1");
+    }
+
+    private static OrderRequest order(Long userId, Long productId, String shippingAddress) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        OrderRequest request = new OrderRequest();
+        request.setUserId(userId);
+        request.setItems(List.of(item));
+        request.setShippingAddress(shippingAddress);
+        return request;
+    }
+}
@@ -0,0 +1,91 @@
+package com.shopfast.service;
+
+import com.shopfast.model.dto.OrderRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows written per second by single order calls against one batch call of the same orders.
+ * Each order writes an order row, two item rows and an outbox row.
+ * Run with: mvn -Pbenchmark test
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch-benchmark;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.com.shopfast=INFO",
+        "shopfast.orders.item-processing-delay=0ms",
+        "shopfast.notifications.poll-interval-ms=3600000"
+})
+@Tag("benchmark")
+class BatchOrderBenchmarkTest {
+
+    private static final int ORDERS = 100;
+
+    private static final int ROWS_PER_ORDER = 4;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void compareWithSingleCalls() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Warm-up
+        orderService.createOrders(orders(20));
+        orderService.createOrder(orders(1).get(0));
+
+        statistics.clear();
+        long start = System.nanoTime();
+        orders(ORDERS).forEach(orderService::createOrder);
+        long singleNanos = System.nanoTime() - start;
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        List<OrderService.OrderOutcome> outcomes = orderService.createOrders(orders(ORDERS));
+        long batchNanos = System.nanoTime() - start;
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        assertThat(outcomes).allSatisfy(outcome -> assertThat(outcome.error()).isNull());
+        System.out.printf("Single calls: %.0f rows/s, %d statements%n", rowsPerSecond(singleNanos), singleStatements);
+        System.out.printf("One batch:    %.0f rows/s, %d statements%n", rowsPerSecond(batchNanos), batchStatements);
+    }
+
+    private static List<OrderRequest> orders(int count) {
+        List<OrderRequest> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OrderRequest request = new OrderRequest();
+            request.setUserId((long) (i % 5 + 1));
+            request.setShippingAddress("Izmir, Turkey");
+            request.setItems(List.of(item(7L), item(8L)));
+            orders.add(request);
+        }
+        return orders;
+    }
+
+    private static OrderRequest.OrderItemRequest item(Long productId) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        return item;
+    }
+
+    private static double rowsPerSecond(long nanos) {
+        return ORDERS * ROWS_PER_ORDER / (nanos / 1_000_000_000.0);
+    }
+}
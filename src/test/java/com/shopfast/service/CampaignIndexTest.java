@@ -0,0 +1,142 @@
+package com.shopfast.service;
+
+import com.shopfast.event.CampaignChangedEvent;
+import com.shopfast.event.CampaignSoldOutEvent;
+import com.shopfast.event.ProductChangedEvent;
+import com.shopfast.model.entity.Campaign;
+import com.shopfast.model.entity.Product;
+import com.shopfast.repository.CampaignRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CampaignIndexTest {
+
+    private final CampaignRepository campaignRepository = mock(CampaignRepository.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final CampaignIndex index = new CampaignIndex(campaignRepository, eventPublisher);
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Test
+    void productPriceChangeRepricesItsCampaigns() {
+        Product product = product(1L, "100.00");
+        when(campaignRepository.findCurrentAndUpcoming(any()))
+                .thenReturn(List.of(campaign(10L, product, "25.00", now.minusHours(1), now.plusHours(1))));
+        index.refresh();
+        assertThat(index.activeCampaign(1L).discountedPriceMinor()).isEqualTo(7500);
+
+        Product repriced = product(1L, "80.00");
+        when(campaignRepository.findCurrentAndUpcomingByProductId(eq(1L), any()))
+                .thenReturn(List.of(campaign(10L, repriced, "25.00", now.minusHours(1), now.plusHours(1))));
+        index.onProductChanged(new ProductChangedEvent(1L));
+
+        assertThat(index.activeCampaign(1L).discountedPriceMinor()).isEqualTo(6000);
+        assertThat(index.activeCampaign(1L).discountedPrice()).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void lookupFollowsOverlappingAndAdjacentIntervals() {
+        // A [0h, 2h) and B [1h, 3h) overlap; C [3h, 4h) starts where B ends
+        LocalDateTime start = now.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        Product product = product(1L, "100.00");
+        when(campaignRepository.findCurrentAndUpcoming(any())).thenReturn(List.of(
+                campaign(12L, product, "30.00", start.plusHours(3), start.plusHours(4)),
+                campaign(10L, product, "10.00", start, start.plusHours(2)),
+                campaign(11L, product, "20.00", start.plusHours(1), start.plusHours(3))));
+        index.refresh();
+
+        assertThat(index.activeCampaign(1L, millis(start) - 1)).isNull();
+        assertThat(index.activeCampaign(1L, millis(start)).id()).isEqualTo(10L);
+        // The later start wins while both run
+        assertThat(index.activeCampaign(1L, millis(start.plusHours(1))).id()).isEqualTo(11L);
+        assertThat(index.activeCampaign(1L, millis(start.plusHours(2))).id()).isEqualTo(11L);
+        assertThat(index.activeCampaign(1L, millis(start.plusHours(3)) - 1).id()).isEqualTo(11L);
+        assertThat(index.activeCampaign(1L, millis(start.plusHours(3))).id()).isEqualTo(12L);
+        assertThat(index.activeCampaign(1L, millis(start.plusHours(4)))).isNull();
+        assertThat(index.activeCampaign(2L, millis(start))).isNull();
+        assertThat(index.productIds()).containsExactly(1L);
+    }
+
+    @Test
+    void soldOutCampaignsGiveWayToTheOverlappingOne() {
+        Product product = product(1L, "100.00");
+        Campaign older = campaign(10L, product, "10.00", now.minusHours(2), now.plusHours(2));
+        Campaign limited = campaign(11L, product, "20.00", now.minusHours(1), now.plusHours(2));
+        limited.setMaxQuantity(5);
+        Campaign usedUp = campaign(20L, product(2L, "100.00"), "20.00", now.minusHours(1), now.plusHours(2));
+        usedUp.setMaxQuantity(5);
+        usedUp.setSoldQuantity(5);
+        when(campaignRepository.findCurrentAndUpcoming(any())).thenReturn(List.of(older, limited, usedUp));
+        index.refresh();
+        assertThat(index.activeCampaign(1L).id()).isEqualTo(11L);
+        assertThat(index.activeCampaign(2L)).isNull();
+
+        index.markSoldOut(11L, 1L);
+        index.markSoldOut(11L, 1L);
+        assertThat(index.activeCampaign(1L).id()).isEqualTo(10L);
+        verify(eventPublisher, times(1)).publishEvent(new CampaignSoldOutEvent(11L, 1L));
+
+        // Without a quota a campaign cannot sell out
+        index.markSoldOut(10L, 1L);
+        assertThat(index.activeCampaign(1L).id()).isEqualTo(10L);
+
+        // The rebuild takes the sold quantity from the database again
+        limited.setSoldQuantity(4);
+        index.refresh();
+        assertThat(index.activeCampaign(1L).id()).isEqualTo(11L);
+    }
+
+    @Test
+    void campaignChangeRebuildsTheIndex() {
+        Product product = product(1L, "100.00");
+        when(campaignRepository.findCurrentAndUpcoming(any()))
+                .thenReturn(List.of(campaign(10L, product, "10.00", now.minusHours(1), now.plusHours(1))));
+        index.refresh();
+        assertThat(index.activeCampaign(1L).discountedPriceMinor()).isEqualTo(9000);
+
+        when(campaignRepository.findCurrentAndUpcoming(any()))
+                .thenReturn(List.of(campaign(11L, product(3L, "50.00"), "50.00", now.minusHours(1), now.plusHours(1))));
+        index.onCampaignChanged(new CampaignChangedEvent(10L, 1L));
+
+        assertThat(index.activeCampaign(1L)).isNull();
+        assertThat(index.activeCampaign(3L).discountedPriceMinor()).isEqualTo(2500);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Product product(Long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+
+    private static Campaign campaign(Long id, Product product, String discount, LocalDateTime start, LocalDateTime end) {
+        Campaign campaign = new Campaign();
+        campaign.setId(id);
+        campaign.setName("Campaign " + id);
+        campaign.setProduct(product);
+        campaign.setDiscountPercentage(new BigDecimal(discount));
+        campaign.setStartDate(start);
+        campaign.setEndDate(end);
+        return campaign;
+    }
+}
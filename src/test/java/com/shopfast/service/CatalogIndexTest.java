@@ -0,0 +1,128 @@
+package com.shopfast.service;
+
+import com.shopfast.event.ProductChangedEvent;
+import com.shopfast.event.ProductStockChangedEvent;
+import com.shopfast.model.dto.CatalogRow;
+import com.shopfast.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogIndexTest {
+
+    private final StockStore stockStore = mock(StockStore.class);
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private CatalogIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Ids 1..200 across word boundaries: every third product inactive, even ids in Books, ids past 150 sold out
+        List<CatalogRow> rows = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            rows.add(new CatalogRow(id, id % 2 == 0 ? "Books" : "Toys", id % 3 != 0, id > 150 ? 0 : 10));
+        }
+        when(productRepository.findCatalogRows()).thenReturn(rows);
+        when(stockStore.available(anyLong(), anyInt())).thenAnswer(call -> call.getArgument(1));
+        index = new CatalogIndex(productRepository, stockStore);
+        index.refresh();
+    }
+
+    @Test
+    void listingsFollowIdOrderFromTheCursor() {
+        assertThat(index.active(0, 5)).containsExactly(1, 2, 4, 5, 7);
+        assertThat(index.active(62, 4)).containsExactly(64, 65, 67, 68);
+        assertThat(index.activeInCategory("Books", 60, 3)).containsExactly(62, 64, 68);
+        assertThat(index.activeInCategory("Garden", 0, 10)).isEmpty();
+        assertThat(index.inStock(145, 10)).containsExactly(146, 148, 149);
+        assertThat(index.inStock(200, 10)).isEmpty();
+    }
+
+    @Test
+    void stockCrossingZeroFlipsTheInStockBit() {
+        when(stockStore.available(149L, -1)).thenReturn(0);
+        when(stockStore.available(151L, -1)).thenReturn(3);
+        index.onStockChanged(new ProductStockChangedEvent(Set.of(149L, 151L)));
+
+        assertThat(index.inStock(145, 10)).containsExactly(146, 148, 151);
+    }
+
+    @Test
+    void racingStockEventsLeaveTheLatestStock() throws InterruptedException {
+        // The sell-out event reads 0; a release and its event arrive before it applies the bit
+        AtomicInteger stock149 = new AtomicInteger(0);
+        CountDownLatch soldOutRead = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(stockStore.available(149L, -1)).thenAnswer(call -> {
+            int available = stock149.get();
+            if (first.compareAndSet(true, false)) {
+                soldOutRead.countDown();
+                Thread.sleep(200);
+            }
+            return available;
+        });
+        Thread soldOut = Thread.ofPlatform().start(() -> index.onStockChanged(new ProductStockChangedEvent(Set.of(149L))));
+        soldOutRead.await();
+        stock149.set(4);
+        index.onStockChanged(new ProductStockChangedEvent(Set.of(149L)));
+        soldOut.join();
+
+        assertThat(index.isInStock(149L)).isTrue();
+    }
+
+    @Test
+    void productChangeOnlyUpdatesThatProduct() {
+        // 4 moves from Books to Toys, 1 is deleted, 300 is added past the last word
+        when(productRepository.findCatalogRowById(4L)).thenReturn(Optional.of(new CatalogRow(4L, "Toys", true, 10)));
+        when(productRepository.findCatalogRowById(300L)).thenReturn(Optional.of(new CatalogRow(300L, "Garden", true, 5)));
+        index.onProductChanged(new ProductChangedEvent(4L));
+        index.onProductChanged(new ProductChangedEvent(1L));
+        index.onProductChanged(new ProductChangedEvent(300L));
+
+        assertThat(index.activeInCategory("Books", 0, 3)).containsExactly(2, 8, 10);
+        assertThat(index.activeInCategory("Toys", 0, 3)).containsExactly(4, 5, 7);
+        assertThat(index.active(0, 3)).containsExactly(2, 4, 5);
+        assertThat(index.activeInCategory("Garden", 0, 10)).containsExactly(300);
+        assertThat(index.inStock(200, 10)).containsExactly(300);
+        verify(productRepository, times(1)).findCatalogRows();
+    }
+
+    @Test
+    void stockChangeDuringARebuildSurvivesTheSwap() {
+        AtomicInteger stock149 = new AtomicInteger(10);
+        AtomicBoolean sold = new AtomicBoolean();
+        when(stockStore.available(anyLong(), anyInt())).thenAnswer(call -> {
+            long id = call.getArgument(0);
+            if (id == 149) {
+                return stock149.get();
+            }
+            // The last units of 149 sell once the rebuild has already read it
+            if (id == 150 && sold.compareAndSet(false, true)) {
+                stock149.set(0);
+                index.onStockChanged(new ProductStockChangedEvent(Set.of(149L)));
+            }
+            return call.getArgument(1);
+        });
+        when(productRepository.findCatalogRowById(149L)).thenReturn(Optional.of(new CatalogRow(149L, "Toys", true, 10)));
+
+        index.refresh();
+
+        assertThat(index.inStock(145, 10)).containsExactly(146, 148);
+    }
+}
@@ -0,0 +1,174 @@
+package com.shopfast.service;
+
+import com.shopfast.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties(), new SimpleMeterRegistry());
+
+    private long now = System.nanoTime();
+
+    @Test
+    void browsingLeavesRoomForOrders() {
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            permits.add(limiter.tryAcquire(ConcurrencyLimiter.Priority.BROWSING));
+        }
+        assertThat(permits).doesNotContainNull();
+        assertThat(limiter.tryAcquire(ConcurrencyLimiter.Priority.BROWSING)).isNull();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(ConcurrencyLimiter.Priority.ORDERS)).isNotNull();
+        }
+        assertThat(limiter.tryAcquire(ConcurrencyLimiter.Priority.ORDERS)).isNull();
+
+        permits.get(0).release();
+        assertThat(limiter.tryAcquire(ConcurrencyLimiter.Priority.BROWSING)).isNull();
+        assertThat(limiter.tryAcquire(ConcurrencyLimiter.Priority.ORDERS)).isNotNull();
+    }
+
+    @Test
+    void limitFollowsLatency() {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(ConcurrencyLimiter.Priority.ORDERS);
+        }
+        windows(10, 20);
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        // Latency triples: the limit backs off
+        windows(10, 60);
+        int shrunk = limiter.getLimit();
+        assertThat(shrunk).isLessThan(grown / 2);
+
+        // A few samples are not enough to change anything
+        now += TimeUnit.SECONDS.toNanos(1);
+        limiter.onSample(ConcurrencyLimiter.Priority.ORDERS, TimeUnit.MILLISECONDS.toNanos(500), now);
+        assertThat(limiter.getLimit()).isEqualTo(shrunk);
+    }
+
+    @Test
+    void slowBrowsingOnlyCutsBrowsing() {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(ConcurrencyLimiter.Priority.ORDERS);
+        }
+        windows(ConcurrencyLimiter.Priority.ORDERS, 5, 20);
+        windows(ConcurrencyLimiter.Priority.BROWSING, 5, 20);
+        int limit = limiter.getLimit();
+        int browsing = browsingCapacity();
+
+        // Browsing latency triples while orders keep their latency
+        for (int window = 0; window < 5; window++) {
+            samples(ConcurrencyLimiter.Priority.ORDERS, 10, 20);
+            samples(ConcurrencyLimiter.Priority.BROWSING, 10, 60);
+            closeWindow(ConcurrencyLimiter.Priority.ORDERS, 20);
+        }
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(limit);
+        assertThat(browsingCapacity()).isLessThan(browsing);
+    }
+
+    @Test
+    void sparseWindowIsNotCarriedIntoTheNext() {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(ConcurrencyLimiter.Priority.ORDERS);
+        }
+        windows(ConcurrencyLimiter.Priority.ORDERS, 10, 20);
+        int limit = limiter.getLimit();
+
+        // Too few slow samples to count; they must not weigh on the following window
+        samples(ConcurrencyLimiter.Priority.ORDERS, 4, 500);
+        closeWindow(ConcurrencyLimiter.Priority.ORDERS, 500);
+        assertThat(limiter.getLimit()).isEqualTo(limit);
+        windows(ConcurrencyLimiter.Priority.ORDERS, 1, 20);
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(limit);
+    }
+
+    @Test
+    void fastWindowLowersTheBaselineOnlyUntilItLeavesTheRing() {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(ConcurrencyLimiter.Priority.ORDERS);
+        }
+        windows(10, 20);
+
+        // One window of fast requests, then the usual latency cuts the limit...
+        windows(1, 2);
+        windows(7, 20);
+        int cut = limiter.getLimit();
+        assertThat(cut).isLessThan(20);
+
+        // ...until that window is no longer among the 8 recent ones
+        windows(3, 20);
+        assertThat(limiter.getLimit()).isGreaterThan(cut);
+    }
+
+    @Test
+    void releaseWithoutSampleOnlyFreesThePlace() {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(ConcurrencyLimiter.Priority.ORDERS);
+        }
+        windows(10, 20);
+        int limit = limiter.getLimit();
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            permits.add(limiter.tryAcquire(ConcurrencyLimiter.Priority.ORDERS));
+        }
+
+        // Fast failures released after the window has passed neither close it nor count
+        now += TimeUnit.SECONDS.toNanos(1);
+        permits.forEach(permit -> permit.release(false));
+        assertThat(limiter.getLimit()).isEqualTo(limit);
+        windows(1, 20);
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(limit);
+    }
+
+    private static ConcurrencyLimitProperties properties() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(20);
+        properties.setBaselineWindows(8);
+        return properties;
+    }
+
+    // Browsing permits that can be taken with nothing else in flight
+    private int browsingCapacity() {
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        ConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.tryAcquire(ConcurrencyLimiter.Priority.BROWSING)) != null) {
+            permits.add(permit);
+        }
+        // Released outside a window boundary, so these samples do not close one
+        permits.forEach(ConcurrencyLimiter.Permit::release);
+        return permits.size();
+    }
+
+    private void windows(int windows, long latencyMillis) {
+        windows(ConcurrencyLimiter.Priority.ORDERS, windows, latencyMillis);
+    }
+
+    // Each window gets enough samples of the given latency to be counted
+    private void windows(ConcurrencyLimiter.Priority priority, int windows, long latencyMillis) {
+        for (int window = 0; window < windows; window++) {
+            samples(priority, 10, latencyMillis);
+            closeWindow(priority, latencyMillis);
+        }
+    }
+
+    private void samples(ConcurrencyLimiter.Priority priority, int samples, long latencyMillis) {
+        for (int sample = 0; sample < samples; sample++) {
+            limiter.onSample(priority, TimeUnit.MILLISECONDS.toNanos(latencyMillis), now);
+        }
+    }
+
+    // The sample that arrives after the window has passed closes it
+    private void closeWindow(ConcurrencyLimiter.Priority priority, long latencyMillis) {
+        now += TimeUnit.MILLISECONDS.toNanos(600);
+        limiter.onSample(priority, TimeUnit.MILLISECONDS.toNanos(latencyMillis), now);
+    }
+}
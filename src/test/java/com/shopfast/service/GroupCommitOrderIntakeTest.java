@@ -0,0 +1,68 @@
+package com.shopfast.service;
+
+import com.shopfast.exception.OutOfStockException;
+import com.shopfast.model.dto.OrderRequest;
+import com.shopfast.model.dto.OrderResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A long window, so orders submitted back to back share a group.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:group-commit;DB_CLOSE_DELAY=-1",
+        "shopfast.orders.group-commit.enabled=true",
+        "shopfast.orders.group-commit.window=300ms",
+        "shopfast.orders.item-processing-delay=0ms",
+        "shopfast.notifications.poll-interval-ms=3600000"
+})
+class GroupCommitOrderIntakeTest {
+
+    @Autowired
+    private GroupCommitOrderIntake intake;
+
+    @Autowired
+    private StockStore stockStore;
+
+    @Test
+    void eachCallerGetsTheOutcomeOfItsOwnOrder() {
+        CompletableFuture<OrderResponse> placed = intake.submit(order(1L, 6L, 1, "Test Street 1"));
+        CompletableFuture<OrderResponse> outOfStock = intake.submit(order(2L, 7L, 100_000, "Test Street 2"));
+
+        assertThat(placed.join().getId()).isNotNull();
+        assertThatThrownBy(outOfStock::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(OutOfStockException.class);
+    }
+
+    @Test
+    void failedGroupTransactionIsRetriedOrderByOrder() {
+        int before = stockStore.available(8L, -1);
+        assertThat(before).isPositive();
+        // The missing shipping address only fails when the group is flushed
+        CompletableFuture<OrderResponse> valid = intake.submit(order(1L, 8L, 2, "Test Street 1"));
+        CompletableFuture<OrderResponse> invalid = intake.submit(order(2L, 8L, 1, null));
+
+        assertThat(valid.join().getId()).isNotNull();
+        assertThatThrownBy(invalid::join).isInstanceOf(CompletionException.class);
+        assertThat(stockStore.available(8L, -1)).isEqualTo(before - 2);
+    }
+
+    private static OrderRequest order(Long userId, Long productId, int quantity, String shippingAddress) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setUserId(userId);
+        request.setItems(List.of(item));
+        request.setShippingAddress(shippingAddress);
+        return request;
+    }
+}
@@ -0,0 +1,136 @@
+package com.shopfast.service;
+
+import com.shopfast.config.IdempotencyProperties;
+import com.shopfast.exception.IdempotencyKeyConflictException;
+import com.shopfast.exception.OutOfStockException;
+import com.shopfast.model.dto.OrderRequest;
+import com.shopfast.model.dto.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(new IdempotencyProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void concurrentDuplicatesShareTheFirstExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<OrderResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(executor.submit(() -> store.execute("key-1", request(1L), () -> {
+                executions.incrementAndGet();
+                await(release);
+                return response(42L);
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<OrderResponse> response : responses) {
+            assertThat(response.get().getId()).isEqualTo(42L);
+        }
+        executor.shutdown();
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void failedExecutionCanBeRetried() {
+        assertThatThrownBy(() -> store.execute("key-2", request(1L), () -> {
+            throw new OutOfStockException("Not enough stock");
+        })).isInstanceOf(OutOfStockException.class);
+
+        assertThat(store.execute("key-2", request(1L), () -> response(7L)).getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void errorFailsWaitingDuplicatesAndFreesTheKey() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<OrderResponse> first = executor.submit(() -> store.execute("key-4", request(1L), () -> {
+            started.countDown();
+            await(release);
+            throw new StackOverflowError();
+        }));
+        started.await();
+        Future<OrderResponse> duplicate = executor.submit(() -> store.execute("key-4", request(1L), () -> response(9L)));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThatThrownBy(first::get).hasCauseInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        executor.shutdown();
+        assertThat(store.execute("key-4", request(1L), () -> response(9L)).getId()).isEqualTo(9L);
+    }
+
+    @Test
+    void duplicateStopsWaitingAfterTheTimeout() throws Exception {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setWaitTimeout(Duration.ofMillis(100));
+        IdempotencyStore impatient = new IdempotencyStore(properties, new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<OrderResponse> first = executor.submit(() -> impatient.execute("key-5", request(1L), () -> {
+            started.countDown();
+            await(release);
+            return response(5L);
+        }));
+        started.await();
+
+        assertThatThrownBy(() -> impatient.execute("key-5", request(1L), () -> response(6L)))
+                .isInstanceOf(IdempotencyKeyConflictException.class)
+                .hasMessageContaining("still in progress");
+        release.countDown();
+        assertThat(first.get().getId()).isEqualTo(5L);
+        executor.shutdown();
+    }
+
+    @Test
+    void keyCannotBeReusedForAnotherOrder() {
+        store.execute("key-3", request(1L), () -> response(1L));
+
+        assertThatThrownBy(() -> store.execute("key-3", request(2L), () -> response(2L)))
+                .isInstanceOf(IdempotencyKeyConflictException.class);
+    }
+
+    private static OrderRequest request(Long userId) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(1L);
+        item.setQuantity(1);
+        OrderRequest request = new OrderRequest();
+        request.setUserId(userId);
+        request.setShippingAddress("Idempotency Test");
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    private static OrderResponse response(Long id) {
+        OrderResponse response = new OrderResponse();
+        response.setId(id);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.shopfast.service;
+
+import com.shopfast.exception.OutOfStockException;
+import com.shopfast.repository.CampaignRepository;
+import com.shopfast.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryLedgerTest {
+
+    private InventoryLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        CampaignRepository campaignRepository = mock(CampaignRepository.class);
+        when(productRepository.findStockQuantityById(1L)).thenReturn(Optional.of(100));
+        when(productRepository.findStockQuantityById(2L)).thenReturn(Optional.of(5));
+        when(campaignRepository.findSoldQuantityById(10L)).thenReturn(Optional.of(0));
+        ledger = new InventoryLedger(productRepository, campaignRepository, mock(StockReconciler.class));
+    }
+
+    @Test
+    void reservationIsAllOrNothing() {
+        assertThatThrownBy(() -> ledger.reserve(List.of(
+                new StockStore.StockLine(1L, 10, null, null),
+                new StockStore.StockLine(2L, 6, null, null))))
+                .isInstanceOf(OutOfStockException.class);
+
+        assertThat(ledger.available(1L, -1)).isEqualTo(100);
+        assertThat(ledger.available(2L, -1)).isEqualTo(5);
+    }
+
+    @Test
+    void unknownProductReleasesEarlierLines() {
+        assertThatThrownBy(() -> ledger.reserve(List.of(
+                new StockStore.StockLine(1L, 10, null, null),
+                new StockStore.StockLine(99L, 1, null, null))))
+                .hasMessage("Product not found");
+
+        assertThat(ledger.available(1L, -1)).isEqualTo(100);
+    }
+
+    @Test
+    void unknownCampaignReleasesItsLineAndEarlierOnes() {
+        assertThatThrownBy(() -> ledger.reserve(List.of(
+                new StockStore.StockLine(1L, 10, 10L, 50),
+                new StockStore.StockLine(2L, 2, 99L, 50))))
+                .hasMessage("Campaign not found");
+
+        assertThat(ledger.available(1L, -1)).isEqualTo(100);
+        assertThat(ledger.available(2L, -1)).isEqualTo(5);
+        assertThat(ledger.reserve(List.of(new StockStore.StockLine(1L, 50, 10L, 50))).isDiscounted(1L)).isTrue();
+    }
+
+    @Test
+    void campaignQuotaFallsBackToRegularPriceWhenExhausted() {
+        StockStore.Reservation first = ledger.reserve(List.of(new StockStore.StockLine(1L, 40, 10L, 50)));
+        StockStore.Reservation second = ledger.reserve(List.of(new StockStore.StockLine(1L, 20, 10L, 50)));
+
+        assertThat(first.isDiscounted(1L)).isTrue();
+        assertThat(second.isDiscounted(1L)).isFalse();
+
+        ledger.release(first);
+        assertThat(ledger.reserve(List.of(new StockStore.StockLine(1L, 50, 10L, 50))).isDiscounted(1L)).isTrue();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws InterruptedException {
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executor.execute(() -> {
+                try {
+                    ledger.reserve(List.of(new StockStore.StockLine(1L, 3, null, null)));
+                    sold.addAndGet(3);
+                } catch (OutOfStockException ignored) {
+                    // expected once the 100 units are gone
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertThat(sold.get()).isEqualTo(99);
+        assertThat(ledger.available(1L, -1)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCampaignClaimsNeverExceedQuota() throws InterruptedException {
+        AtomicInteger discounted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 100; i++) {
+            executor.execute(() -> {
+                if (ledger.reserve(List.of(new StockStore.StockLine(1L, 1, 10L, 30))).isDiscounted(1L)) {
+                    discounted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertThat(discounted.get()).isEqualTo(30);
+        assertThat(ledger.available(1L, -1)).isZero();
+    }
+}
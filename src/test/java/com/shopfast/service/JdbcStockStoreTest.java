@@ -0,0 +1,121 @@
+package com.shopfast.service;
+
+import com.shopfast.exception.OutOfStockException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jdbc-stock;DB_CLOSE_DELAY=-1",
+        "shopfast.stock.store=database",
+        "shopfast.notifications.poll-interval-ms=3600000"
+})
+class JdbcStockStoreTest {
+
+    @Autowired
+    private StockStore stockStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        jdbcTemplate.update("UPDATE products SET stock_quantity = 10 WHERE id = 9");
+        jdbcTemplate.update("UPDATE campaigns SET sold_quantity = 95 WHERE id = 3");
+
+        // 20 buyers each for product 9 and for the last 5 campaign units of product 6
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<StockStore.Reservation>> plain = new ArrayList<>();
+        List<Future<StockStore.Reservation>> discounted = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            plain.add(executor.submit(reserve(new StockStore.StockLine(9L, 1, null, null))));
+            discounted.add(executor.submit(reserve(new StockStore.StockLine(6L, 1, 3L, 100))));
+        }
+        int placed = 0;
+        for (Future<StockStore.Reservation> reservation : plain) {
+            placed += reservation.get() != null ? 1 : 0;
+        }
+        int claimed = 0;
+        for (Future<StockStore.Reservation> reservation : discounted) {
+            claimed += reservation.get().isDiscounted(6L) ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertThat(placed).isEqualTo(10);
+        assertThat(stock(9L)).isZero();
+        assertThat(claimed).isEqualTo(5);
+        assertThat(sold(3L)).isEqualTo(100);
+    }
+
+    @Test
+    void failedLineReservesNothingAndReleaseRestoresEverything() {
+        jdbcTemplate.update("UPDATE campaigns SET sold_quantity = 0 WHERE id = 3");
+        int stock7 = stock(7L);
+        int stock6 = stock(6L);
+        int sold = sold(3L);
+
+        // The second line fails, so the first must not stay reserved
+        assertThatThrownBy(() -> stockStore.reserve(List.of(
+                new StockStore.StockLine(7L, 2, null, null),
+                new StockStore.StockLine(8L, 100_000, null, null))))
+                .isInstanceOf(OutOfStockException.class);
+        assertThat(stock(7L)).isEqualTo(stock7);
+
+        StockStore.Reservation reservation = stockStore.reserve(List.of(
+                new StockStore.StockLine(7L, 2, null, null),
+                new StockStore.StockLine(6L, 3, 3L, 100)));
+        assertThat(stock(7L)).isEqualTo(stock7 - 2);
+        assertThat(sold(3L)).isEqualTo(sold + 3);
+
+        stockStore.release(reservation);
+        assertThat(stock(7L)).isEqualTo(stock7);
+        assertThat(stock(6L)).isEqualTo(stock6);
+        assertThat(sold(3L)).isEqualTo(sold);
+    }
+
+    @Test
+    void updateCountsOtherThanOneFailTheReservation() {
+        JdbcTemplate noCounts = mock(JdbcTemplate.class);
+        when(noCounts.batchUpdate(anyString(), anyList())).thenReturn(new int[]{Statement.SUCCESS_NO_INFO});
+        JdbcStockStore store = new JdbcStockStore(noCounts, mock(PlatformTransactionManager.class));
+
+        assertThatThrownBy(() -> store.reserve(List.of(new StockStore.StockLine(7L, 1, null, null))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // Null when the product ran out
+    private Callable<StockStore.Reservation> reserve(StockStore.StockLine line) {
+        return () -> {
+            try {
+                return stockStore.reserve(List.of(line));
+            } catch (OutOfStockException e) {
+                return null;
+            }
+        };
+    }
+
+    private int stock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private int sold(Long campaignId) {
+        return jdbcTemplate.queryForObject("SELECT sold_quantity FROM campaigns WHERE id = ?", Integer.class, campaignId);
+    }
+}
@@ -0,0 +1,84 @@
+package com.shopfast.service;
+
+import com.shopfast.model.entity.OrderNotification;
+import com.shopfast.repository.OrderNotificationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The dispatcher is driven by hand; the notifier fails once, then delivers.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+        "shopfast.notifications.poll-interval-ms=3600000",
+        "shopfast.notifications.initial-backoff=2s"
+})
+class NotificationOutboxTest {
+
+    @MockitoBean
+    private OrderNotifier orderNotifier;
+
+    @Autowired
+    private NotificationOutbox outbox;
+
+    @Autowired
+    private OrderNotificationRepository notificationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void failedSendIsRetriedAfterItsBackoffThenMarkedSent() throws InterruptedException {
+        doThrow(new IllegalStateException("provider down")).doNothing().when(orderNotifier).send(any());
+        OrderNotification notification = new OrderNotification();
+        notification.setOrderId(1L);
+        notification.setRecipient("john.doe@email.com");
+        Long id = notificationRepository.save(notification).getId();
+
+        LocalDateTime failedAt = LocalDateTime.now();
+        outbox.dispatch();
+        OrderNotification retrying = notificationRepository.findById(id).orElseThrow();
+        assertThat(retrying.getStatus()).isEqualTo(OrderNotification.Status.PENDING);
+        assertThat(retrying.getAttempts()).isEqualTo(1);
+        assertThat(retrying.getLastError()).isEqualTo("provider down");
+        assertThat(retrying.getNextAttemptAt()).isAfterOrEqualTo(failedAt.plus(Duration.ofSeconds(2)));
+        assertThat(count("retried")).isEqualTo(1);
+        assertThat(meterRegistry.get("shopfast.notifications.backlog").gauge().value()).isEqualTo(1);
+
+        // Not due yet
+        outbox.dispatch();
+        verify(orderNotifier, times(1)).send(any());
+
+        Thread.sleep(Math.max(0, Duration.between(LocalDateTime.now(), retrying.getNextAttemptAt()).toMillis() + 50));
+        outbox.dispatch();
+        OrderNotification sent = notificationRepository.findById(id).orElseThrow();
+        assertThat(sent.getStatus()).isEqualTo(OrderNotification.Status.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(2);
+        assertThat(sent.getSentAt()).isNotNull();
+        assertThat(count("sent")).isEqualTo(1);
+        assertThat(meterRegistry.get("shopfast.notifications.backlog").gauge().value()).isZero();
+
+        Timer lag = meterRegistry.get("shopfast.notifications.lag").timer();
+        assertThat(lag.count()).isEqualTo(1);
+        assertThat(lag.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(2000);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("shopfast.notifications").tag("result", result).counter().count();
+    }
+}
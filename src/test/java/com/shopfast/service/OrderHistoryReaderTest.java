@@ -0,0 +1,74 @@
+package com.shopfast.service;
+
+import com.shopfast.model.dto.CursorPage;
+import com.shopfast.model.dto.OrderRequest;
+import com.shopfast.model.dto.OrderResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "shopfast.orders.item-processing-delay=0ms",
+        "shopfast.notifications.poll-interval-ms=3600000"
+})
+class OrderHistoryReaderTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderHistoryReader orderHistoryReader;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void historyTakesTwoStatementsWhateverItsSize() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < 6; i++) {
+            orderService.createOrder(order(3L, 5L, 7L, 8L));
+        }
+
+        statistics.clear();
+        List<OrderResponse> history = orderHistoryReader.getOrdersByUserId(3L);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(history).hasSize(6).allSatisfy(order -> {
+            assertThat(order.getUserEmail()).isNotBlank();
+            assertThat(order.getItems()).hasSize(3).allSatisfy(item -> assertThat(item.getProductName()).isNotBlank());
+        });
+
+        statistics.clear();
+        CursorPage<OrderResponse> page = orderHistoryReader.getOrdersByUserId(3L, null, 4);
+        CursorPage<OrderResponse> next = orderHistoryReader.getOrdersByUserId(3L, page.getNextCursor(), 4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(page.getItems()).extracting(OrderResponse::getId)
+                .containsExactlyElementsOf(history.subList(0, 4).stream().map(OrderResponse::getId).toList());
+        assertThat(next.getItems()).hasSize(2);
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    private static OrderRequest order(Long userId, Long... productIds) {
+        List<OrderRequest.OrderItemRequest> items = new ArrayList<>();
+        for (Long productId : productIds) {
+            OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+            item.setProductId(productId);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        OrderRequest request = new OrderRequest();
+        request.setUserId(userId);
+        request.setShippingAddress("Query Count Test");
+        request.setItems(items);
+        return request;
+    }
+}
@@ -0,0 +1,89 @@
+package com.shopfast.service;
+
+import com.shopfast.exception.OutOfStockException;
+import com.shopfast.model.dto.OrderRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-metrics;DB_CLOSE_DELAY=-1",
+        "shopfast.orders.item-processing-delay=0ms",
+        "shopfast.notifications.poll-interval-ms=3600000"
+})
+class OrderMetricsTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void stagesRejectionsAndCampaignStockAreMetered() {
+        orderMetrics.registerStockGauges();
+        assertThat(meterRegistry.find("shopfast.stock.available").gauges())
+                .extracting(gauge -> gauge.getId().getTag("product"))
+                .containsExactlyInAnyOrder("1", "3", "6");
+        double before = stock(6L);
+
+        orderService.createOrder(order(6L, 2));
+        for (OrderMetrics.Stage stage : OrderMetrics.Stage.values()) {
+            assertThat(stageCount(stage)).as(stage.name()).isEqualTo(1);
+        }
+        assertThat(stock(6L)).isEqualTo(before - 2);
+
+        assertThatThrownBy(() -> orderService.createOrder(order(6L, 100_000))).isInstanceOf(OutOfStockException.class);
+        assertThat(stageCount(OrderMetrics.Stage.STOCK_RESERVATION)).isEqualTo(2);
+        assertThat(stageCount(OrderMetrics.Stage.PERSIST)).isEqualTo(1);
+        assertThat(rejected("out_of_stock")).isEqualTo(1);
+        assertThat(rejected("campaign_sold_out")).isZero();
+        assertThat(stock(6L)).isEqualTo(before - 2);
+    }
+
+    private long stageCount(OrderMetrics.Stage stage) {
+        return meterRegistry.get("shopfast.orders.stage").tag("stage", stage.name().toLowerCase(Locale.ROOT)).timer().count();
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("shopfast.orders.rejected").tag("reason", reason).counter().count();
+    }
+
+    private double stock(long productId) {
+        return meterRegistry.get("shopfast.stock.available").tag("product", String.valueOf(productId)).gauge().value();
+    }
+
+    private static OrderRequest order(Long productId, int quantity) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setUserId(2L);
+        request.setItems(List.of(item));
+        request.setShippingAddress("Test Street 1");
+        return request;
+    }
+
+    // Meters of this context only, read back without any export format in between
+    @TestConfiguration
+    static class Meters {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
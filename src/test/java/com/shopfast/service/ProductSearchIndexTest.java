@@ -0,0 +1,66 @@
+package com.shopfast.service;
+
+import com.shopfast.model.dto.ProductTextRow;
+import com.shopfast.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private final CatalogIndex catalogIndex = mock(CatalogIndex.class);
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findTextRows()).thenReturn(List.of(
+                new ProductTextRow(1L, "iPhone 15 Pro", "Latest iPhone with A17 Pro chip", "Electronics"),
+                new ProductTextRow(2L, "Phone Case", "Fits the iPhone 15", "Accessories"),
+                new ProductTextRow(3L, "iPad Air", "10.9-inch iPad Air with M1 chip", "Electronics"),
+                new ProductTextRow(4L, "Nike Air Max", "Premium running shoes", "Fashion")));
+        when(catalogIndex.isActive(anyLong())).thenReturn(true);
+        when(catalogIndex.isInStock(anyLong())).thenReturn(true);
+        index = new ProductSearchIndex(productRepository, catalogIndex);
+        index.build();
+    }
+
+    @Test
+    void everyWordMatchesAsAPrefixAndNameHitsRankFirst() {
+        assertThat(index.search("iph", 10)).containsExactly(1, 2);
+        assertThat(index.search("IPHONE 15", 10)).containsExactly(1, 2);
+        assertThat(index.search("air", 10)).containsExactly(3, 4);
+        assertThat(index.search("air shoes", 10)).containsExactly(4);
+        assertThat(index.search("electronics chip", 1)).containsExactly(1);
+        assertThat(index.search("tablet", 10)).isEmpty();
+        assertThat(index.search("a ", 10)).isEmpty();
+    }
+
+    @Test
+    void inStockProductsRankFirstAndInactiveOnesAreLeftOut() {
+        when(catalogIndex.isInStock(1L)).thenReturn(false);
+        assertThat(index.search("iphone", 10)).containsExactly(2, 1);
+
+        when(catalogIndex.isActive(2L)).thenReturn(false);
+        assertThat(index.search("iphone", 10)).containsExactly(1);
+    }
+
+    @Test
+    void changedProductsAreReindexedOnTheirOwn() {
+        index.reindex(4L, ProductSearchIndex.fields(new ProductTextRow(4L, "Nike Pegasus", "Road running shoes", "Fashion")));
+        index.reindex(5L, ProductSearchIndex.fields(new ProductTextRow(5L, "Air Fryer", null, "Home")));
+        index.reindex(3L, Map.of());
+
+        assertThat(index.search("air", 10)).containsExactly(5);
+        assertThat(index.search("pegas", 10)).containsExactly(4);
+        assertThat(index.search("ipad", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,88 @@
+package com.shopfast.service;
+
+import com.shopfast.model.Money;
+import com.shopfast.model.dto.OrderRequest;
+import com.shopfast.model.dto.ProductResponse;
+import com.shopfast.model.entity.Campaign;
+import com.shopfast.repository.CampaignRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Each change is made after the product is cached, so a stale entry would show the old value.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-cache;DB_CLOSE_DELAY=-1",
+        "shopfast.orders.item-processing-delay=0ms",
+        "shopfast.notifications.poll-interval-ms=3600000"
+})
+class ProductServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CampaignIndex campaignIndex;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void campaignChangeEvictsItsProduct() {
+        ProductResponse cached = productService.getProductById(6L);
+        assertThat(cached.getDiscountPercentage()).isEqualByComparingTo("40.00");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Campaign campaign = campaignRepository.findWithProductById(3L).orElseThrow();
+            campaign.setDiscountPercentage(new BigDecimal("20.00"));
+        });
+
+        ProductResponse product = productService.getProductById(6L);
+        assertThat(product.getDiscountPercentage()).isEqualByComparingTo("20.00");
+        assertThat(product.getDiscountedPrice())
+                .isEqualByComparingTo(Money.discountedPrice(product.getPrice(), new BigDecimal("20.00")));
+    }
+
+    @Test
+    void soldOutCampaignEvictsItsProduct() {
+        assertThat(productService.getProductById(1L).getHasActiveCampaign()).isTrue();
+
+        campaignIndex.markSoldOut(1L, 1L);
+        try {
+            ProductResponse product = productService.getProductById(1L);
+            assertThat(product.getHasActiveCampaign()).isFalse();
+            assertThat(product.getDiscountedPrice()).isEqualByComparingTo(product.getPrice());
+        } finally {
+            campaignIndex.refresh();
+        }
+    }
+
+    @Test
+    void orderEvictsTheProductsItChanged() {
+        int stock = productService.getProductById(7L).getStockQuantity();
+
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(7L);
+        item.setQuantity(2);
+        OrderRequest request = new OrderRequest();
+        request.setUserId(1L);
+        request.setItems(List.of(item));
+        request.setShippingAddress("Test Street 1");
+        orderService.createOrder(request);
+
+        assertThat(productService.getProductById(7L).getStockQuantity()).isEqualTo(stock - 2);
+    }
+}
@@ -0,0 +1,113 @@
+package com.shopfast.service;
+
+import com.shopfast.exception.OutOfStockException;
+import com.shopfast.repository.CampaignRepository;
+import com.shopfast.repository.ProductRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the Lua scripts on a local redis-server; keys are seeded from mocked repositories.
+ */
+class RedisStockStoreTest {
+
+    private static RedisServer server;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate redis;
+
+    private RedisStockStore store;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RedisServer(port);
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redis = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.getRequiredConnectionFactory().getConnection().serverCommands().flushAll();
+        ProductRepository productRepository = mock(ProductRepository.class);
+        CampaignRepository campaignRepository = mock(CampaignRepository.class);
+        when(productRepository.findStockQuantityById(1L)).thenReturn(Optional.of(100));
+        when(productRepository.findStockQuantityById(2L)).thenReturn(Optional.of(5));
+        when(campaignRepository.findSoldQuantityById(10L)).thenReturn(Optional.of(20));
+        store = new RedisStockStore(redis, productRepository, campaignRepository, mock(StockReconciler.class));
+    }
+
+    @Test
+    void missingKeysAreSeededFromTheDatabase() {
+        assertThat(store.available(1L, -1)).isEqualTo(-1);
+
+        store.reserve(List.of(new StockStore.StockLine(1L, 10, 10L, 50)));
+
+        assertThat(store.available(1L, -1)).isEqualTo(90);
+        assertThat(redis.opsForValue().get("shopfast:campaign-sold:10")).isEqualTo("30");
+    }
+
+    @Test
+    void reservationIsAllOrNothing() {
+        assertThatThrownBy(() -> store.reserve(List.of(
+                new StockStore.StockLine(1L, 10, 10L, 50),
+                new StockStore.StockLine(2L, 6, null, null))))
+                .isInstanceOf(OutOfStockException.class)
+                .hasMessage("Not enough stock for product: 2");
+
+        assertThat(store.available(1L, -1)).isEqualTo(100);
+        assertThat(store.available(2L, -1)).isEqualTo(5);
+        assertThat(redis.opsForValue().get("shopfast:campaign-sold:10")).isEqualTo("20");
+    }
+
+    @Test
+    void campaignQuotaFallsBackToRegularPriceAndIsReleased() {
+        StockStore.Reservation first = store.reserve(List.of(
+                new StockStore.StockLine(1L, 25, 10L, 50),
+                new StockStore.StockLine(2L, 1, null, null)));
+        StockStore.Reservation second = store.reserve(List.of(new StockStore.StockLine(1L, 10, 10L, 50)));
+        StockStore.Reservation unlimited = store.reserve(List.of(new StockStore.StockLine(1L, 5, 10L, null)));
+
+        assertThat(first.isDiscounted(1L)).isTrue();
+        assertThat(first.isDiscounted(2L)).isFalse();
+        assertThat(second.isDiscounted(1L)).isFalse();
+        assertThat(unlimited.isDiscounted(1L)).isTrue();
+        assertThat(redis.opsForValue().get("shopfast:campaign-sold:10")).isEqualTo("50");
+
+        store.release(first);
+        store.release(second);
+        assertThat(store.available(1L, -1)).isEqualTo(95);
+        assertThat(store.available(2L, -1)).isEqualTo(5);
+        assertThat(redis.opsForValue().get("shopfast:campaign-sold:10")).isEqualTo("25");
+        assertThat(store.reserve(List.of(new StockStore.StockLine(1L, 25, 10L, 50))).isDiscounted(1L)).isTrue();
+    }
+}
@@ -0,0 +1,123 @@
+package com.shopfast.service;
+
+import com.shopfast.config.AnalyticsProperties;
+import com.shopfast.model.dto.SaleRow;
+import com.shopfast.model.dto.SalesReport;
+import com.shopfast.model.entity.Order;
+import com.shopfast.model.entity.OrderItem;
+import com.shopfast.model.entity.Product;
+import com.shopfast.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SalesAnalyticsTest {
+
+    private static final long HOUR = 3600;
+
+    // Some time well into an hour
+    private final long now = Instant.now().getEpochSecond() / HOUR * HOUR + 1800;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+    private final SalesAnalytics analytics =
+            new SalesAnalytics(orderRepository, mock(PlatformTransactionManager.class), new AnalyticsProperties());
+
+    @Test
+    void rangesAddUpBucketsOfEveryResolution() {
+        analytics.record(List.of(
+                order(now - 10, item(1L, null, 2, "100.00"), item(2L, 7L, 1, "25.50")),
+                order(now - 10, item(1L, null, 1, "50.00")),
+                order(now - 2 * HOUR - 30, item(2L, 7L, 3, "76.50")),
+                order(now - 3 * 24 * HOUR, item(1L, null, 1, "50.00"))));
+
+        SalesReport lastMinute = analytics.report(now - 60, now + 1, now);
+        assertThat(lastMinute.getOrders()).isEqualTo(2);
+        assertThat(lastMinute.getUnits()).isEqualTo(4);
+        assertThat(lastMinute.getRevenue()).isEqualByComparingTo("175.50");
+        assertThat(lastMinute.getProducts()).extracting(SalesReport.Line::getId).containsExactly(1L, 2L);
+        assertThat(lastMinute.getProducts().get(0).getOrders()).isEqualTo(2);
+        assertThat(lastMinute.getCampaigns()).singleElement()
+                .satisfies(line -> assertThat(line.getRevenue()).isEqualByComparingTo("25.50"));
+
+        SalesReport lastDay = analytics.report(now - 24 * HOUR, now + 1, now);
+        assertThat(lastDay.getOrders()).isEqualTo(3);
+        assertThat(lastDay.getCampaigns().get(0).getUnits()).isEqualTo(4);
+
+        // Older than the minute ring: edges widen to whole hours
+        SalesReport lastWeek = analytics.report(now - 7 * 24 * HOUR + 100, now - 24 * HOUR, now);
+        assertThat(lastWeek.getOrders()).isEqualTo(1);
+        assertThat(epochSecond(lastWeek.getFrom()) % HOUR).isZero();
+
+        assertThat(analytics.report(now - 5, now + 1, now).getOrders()).isZero();
+    }
+
+    @Test
+    void rebuildReadsOrdersFromTheDatabase() {
+        LocalDateTime recent = LocalDateTime.now().minusMinutes(2);
+        when(orderRepository.streamSalesSince(any())).thenReturn(Stream.of(
+                new SaleRow(1L, recent, 1L, null, 1, new BigDecimal("10.00")),
+                new SaleRow(1L, recent, 2L, 3L, 2, new BigDecimal("30.00")),
+                new SaleRow(2L, recent, 2L, 3L, 1, new BigDecimal("15.00"))));
+
+        analytics.rebuild();
+
+        SalesReport report = analytics.report(recent.minusMinutes(1), LocalDateTime.now().plusMinutes(1));
+        assertThat(report.getOrders()).isEqualTo(2);
+        assertThat(report.getUnits()).isEqualTo(4);
+        assertThat(report.getRevenue()).isEqualByComparingTo("55.00");
+        assertThat(report.getProducts()).extracting(SalesReport.Line::getId).containsExactly(2L, 1L);
+        assertThat(report.getCampaigns().get(0).getOrders()).isEqualTo(2);
+    }
+
+    @Test
+    void seriesWithoutRecentSalesAreEvicted() {
+        analytics.record(List.of(
+                order(now - 10, item(1L, 7L, 1, "50.00")),
+                order(now - 31 * 24 * HOUR, item(2L, 8L, 1, "20.00"))));
+        assertThat(analytics.seriesCount()).isEqualTo(4);
+
+        analytics.evictIdle(now);
+        assertThat(analytics.seriesCount()).isEqualTo(2);
+        assertThat(analytics.report(now - 60, now + 1, now).getProducts()).extracting(SalesReport.Line::getId)
+                .containsExactly(1L);
+
+        // A new sale starts a fresh series
+        analytics.record(List.of(order(now - 5, item(2L, null, 2, "80.00"))));
+        assertThat(analytics.report(now - 60, now + 1, now).getProducts()).extracting(SalesReport.Line::getId)
+                .containsExactly(2L, 1L);
+    }
+
+    private static Order order(long epochSecond, OrderItem... items) {
+        Order order = new Order();
+        order.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault()));
+        order.setOrderItems(List.of(items));
+        return order;
+    }
+
+    private static OrderItem item(Long productId, Long campaignId, int quantity, String totalPrice) {
+        Product product = new Product();
+        product.setId(productId);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setCampaignId(campaignId);
+        item.setQuantity(quantity);
+        item.setTotalPrice(new BigDecimal(totalPrice));
+        return item;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
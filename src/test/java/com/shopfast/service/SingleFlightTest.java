@@ -0,0 +1,114 @@
+package com.shopfast.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ZERO, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(executor.submit(() -> flight.load(1L, id -> {
+                loads.incrementAndGet();
+                await(release);
+                return "product-" + id;
+            })));
+        }
+        while (calls("joined") < 15) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("product-1");
+        }
+        executor.shutdown();
+
+        assertThat(loads).hasValue(1);
+        assertThat(calls("loaded")).isEqualTo(1);
+        // Nothing is kept once the load has finished
+        assertThat(flight.load(1L, this::count)).isEqualTo("load-2");
+    }
+
+    @Test
+    void finishedLoadsAreReusedDuringTheGracePeriod() {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofMinutes(1), meterRegistry);
+
+        assertThat(flight.load(1L, this::count)).isEqualTo("load-1");
+        assertThat(flight.load(1L, this::count)).isEqualTo("load-1");
+        assertThat(flight.load(2L, this::count)).isEqualTo("load-2");
+        flight.forget(1L);
+        assertThat(flight.load(1L, this::count)).isEqualTo("load-3");
+        assertThat(calls("reused")).isEqualTo(1);
+    }
+
+    @Test
+    void failuresAreNotReused() {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofMinutes(1), meterRegistry);
+
+        assertThatThrownBy(() -> flight.load(1L, id -> {
+            throw new RuntimeException("Product not found");
+        })).hasMessage("Product not found");
+        assertThat(flight.load(1L, this::count)).isEqualTo("load-1");
+    }
+
+    @Test
+    void errorsFailWaitingCallersAndAreNotReused() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofMinutes(1), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> loading = executor.submit(() -> flight.load(1L, id -> {
+            await(release);
+            throw new StackOverflowError("Too deep");
+        }));
+        while (calls("loaded") < 1) {
+            Thread.onSpinWait();
+        }
+        Future<String> waiting = executor.submit(() -> flight.load(1L, this::count));
+        while (calls("joined") < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThatThrownBy(() -> loading.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        executor.shutdown();
+        assertThat(flight.load(1L, this::count)).isEqualTo("load-1");
+    }
+
+    private String count(Long id) {
+        return "load-" + loads.incrementAndGet();
+    }
+
+    private double calls(String result) {
+        return meterRegistry.counter("shopfast.singleflight.calls", "name", "test", "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.shopfast.service;
+
+import com.shopfast.model.entity.Product;
+import com.shopfast.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contended throughput of the stock store against the original JPA read-modify-write path.
+ * Run with: mvn -Pbenchmark test
+ */
+@SpringBootTest
+@Tag("benchmark")
+class StockStoreBenchmarkTest {
+
+    private static final int THREADS = 8;
+
+    private static final int OPERATIONS = 200;
+
+    @Autowired
+    private StockStore stockStore;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareWithJpaPath() throws InterruptedException {
+        long jpaNanos = run(() -> transactionTemplate.executeWithoutResult(status -> {
+            Product product = productRepository.findById(8L).orElseThrow();
+            product.setStockQuantity(product.getStockQuantity() - 1);
+            productRepository.save(product);
+        }));
+        long storeNanos = run(() -> stockStore.commit(
+                stockStore.reserve(List.of(new StockStore.StockLine(7L, 1, null, null)))));
+
+        System.out.printf("JPA read-modify-write: %.0f ops/s, remaining stock %d (expected %d)%n",
+                opsPerSecond(jpaNanos), productRepository.findStockQuantityById(8L).orElseThrow(), 250 - OPERATIONS);
+        System.out.printf("%s: %.0f ops/s%n", stockStore.getClass().getSimpleName(), opsPerSecond(storeNanos));
+    }
+
+    private static long run(Runnable operation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            executor.execute(operation);
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    private static double opsPerSecond(long nanos) {
+        return OPERATIONS / (nanos / 1_000_000_000.0);
+    }
+}